@@ -0,0 +1,104 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the dispatch overhead of ActionsManager.execute on a single thread
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class ActionsManagerBenchmark {
+    private ActionsManager actionsManager;
+    private Integer        one;
+    private Integer        two;
+    private Object[]       values;
+
+    @Setup
+    public void setup() {
+        actionsManager = new ActionsManager();
+        actionsManager.register(BenchmarkActions.class);
+        one = 1;
+        two = 2;
+        values = new Object[] {"a", "b", "c", "d"};
+    }
+
+    /**
+     * Arguments already have the parameter types
+     */
+    @Benchmark
+    public Object matchingTypes() throws ActionException {
+        return actionsManager.execute("add", one, two);
+    }
+
+    /**
+     * Arguments are Strings parsed through the parameter converters, as sent by the Panel
+     */
+    @Benchmark
+    public Object coercedTypes() throws ActionException {
+        return actionsManager.execute("add", "1", "2");
+    }
+
+    /**
+     * The alias doesn't match any action
+     */
+    @Benchmark
+    public Object unknownAlias() {
+        try {
+            return actionsManager.execute("missing", one);
+        } catch (final ActionException e) {
+            return e;
+        }
+    }
+
+    /**
+     * The action takes an Object[] parameter
+     */
+    @Benchmark
+    public Object varargsArray() throws ActionException {
+        return actionsManager.execute("length", (Object) values);
+    }
+
+    public static class BenchmarkActions implements ActionHandler {
+
+        @Action(aliases = "add")
+        public int add(final int a, final int b) {
+            return a + b;
+        }
+
+        @Action(aliases = "length")
+        public int length(final Object[] values) {
+            return values.length;
+        }
+    }
+}
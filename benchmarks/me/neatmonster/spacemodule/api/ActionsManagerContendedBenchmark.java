@@ -0,0 +1,23 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures the dispatch overhead of ActionsManager.execute with one thread per processor sharing the manager
+ */
+@Threads(Threads.MAX)
+public class ActionsManagerContendedBenchmark extends ActionsManagerBenchmark {}
@@ -67,6 +67,14 @@ public class SpaceModule extends Module {
      * Database file of the Module
      */
     public static final File   DATABASE       = new File(MAIN_DIRECTORY.getPath(), "cache.db");
+    /**
+     * Schedules file of the Module, used by the ActionScheduler
+     */
+    public static final File   SCHEDULES      = new File(MAIN_DIRECTORY.getPath(), "schedules.yml");
+    /**
+     * HTTP cache directory of the Module, holding the last responses of the Jenkins API
+     */
+    public static final File   HTTP_CACHE     = new File(MAIN_DIRECTORY.getPath(), "http-cache");
 
     private static SpaceModule instance;
 
@@ -214,8 +222,9 @@ public class SpaceModule extends Module {
                 artifact = new File("plugins" + File.separator + artifactManager.getArtifactFileName());
             else
                 artifact = new File(artifactPath);
-            if (artifactManager.match(Utilities.getMD5(artifact)) != 0)
-                return "#" + artifactManager.match(Utilities.getMD5(artifact));
+            final int buildNumber = artifactManager.match(Utilities.getMD5(artifact));
+            if (buildNumber != -1)
+                return "#" + buildNumber;
             else
                 return "#?";
         } catch (final Exception e) {
@@ -235,8 +244,9 @@ public class SpaceModule extends Module {
             Console.newLine();
             final File artifact = new File("toolkit" + File.separator + "modules",
                     spaceModuleArtifactManager.getArtifactFileName());
-            if (spaceModuleArtifactManager.match(Utilities.getMD5(artifact)) != 0)
-                return "#" + spaceModuleArtifactManager.match(Utilities.getMD5(artifact));
+            final int buildNumber = spaceModuleArtifactManager.match(Utilities.getMD5(artifact));
+            if (buildNumber != -1)
+                return "#" + buildNumber;
             else
                 return "#?";
         } catch (final Exception e) {
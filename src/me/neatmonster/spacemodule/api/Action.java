@@ -37,4 +37,50 @@ public @interface Action {
      * @return If the action is schedulable
      */
     boolean schedulable() default true;
+
+    /**
+     * Gets the time after which an asynchronous call of the action is cancelled
+     * @return Timeout in milliseconds, 0 for none
+     */
+    long timeout() default 0L;
+
+    /**
+     * Gets the time the result of the action is cached for, so that calls with equal arguments within it
+     * are not executed again. Only read-only actions should be cached.
+     * @return Time to live in milliseconds, 0 to never cache
+     */
+    long cacheTtl() default 0L;
+
+    /**
+     * Gets the maximum number of calls of the action running at once
+     * @return Maximum concurrency, 0 for no limit
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * Gets the maximum number of calls waiting when maxConcurrency calls are already running, further calls
+     * are rejected with an ActionRejectedException
+     * @return Queue depth
+     */
+    int queueDepth() default 0;
+
+    /**
+     * Gets if identical calls of the action arriving while one is running wait for it and share it's result,
+     * instead of running again. Only actions without side effects should be coalesced.
+     * @return If identical concurrent calls are coalesced
+     */
+    boolean coalesce() default false;
+
+    /**
+     * Gets the maximum number of elements per chunk when the result of the action is read in chunks.
+     * Actions with a chunk size cannot be cached nor coalesced, as a lazy Iterator can only be read once.
+     * @return Chunk size, 0 for the default one
+     */
+    int chunkSize() default 0;
+
+    /**
+     * Gets the priority class of the action, deciding the lane it's asynchronous calls wait in
+     * @return Priority of the action
+     */
+    Priority priority() default Priority.NORMAL;
 }
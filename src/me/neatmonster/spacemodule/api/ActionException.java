@@ -14,18 +14,27 @@
  */
 package me.neatmonster.spacemodule.api;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
 /**
- * Called when there is an error with an Action
+ * Called when there is an error with an Action.
+ * Exceptions thrown on the dispatch path are created without a stack trace and build their message
+ * only when it is read, so that bad calls stay cheap.
  */
 public class ActionException extends Exception {
 
     private static final long serialVersionUID = 5467945798187403789L;
 
+    private transient Object[] parts;
+    private String             lazyMessage;
+
     /**
      * Creates a new ActionException
      */
     public ActionException() {
         super();
+        super.fillInStackTrace();
     }
 
     /**
@@ -34,6 +43,7 @@ public class ActionException extends Exception {
      */
     public ActionException(final String message) {
         super(message);
+        super.fillInStackTrace();
     }
 
     /**
@@ -42,5 +52,55 @@ public class ActionException extends Exception {
      */
     public ActionException(final Throwable throwable) {
         super(throwable);
+        super.fillInStackTrace();
+    }
+
+    /**
+     * Creates a new ActionException with an error message and the error causing it
+     * @param message Error message
+     * @param throwable Error
+     */
+    public ActionException(final String message, final Throwable throwable) {
+        super(message, throwable);
+        super.fillInStackTrace();
+    }
+
+    /**
+     * Creates a new ActionException with an error message built when it is first read
+     * @param stackTrace If the stack trace is filled in
+     * @param message Parts of the error message, concatenated
+     */
+    protected ActionException(final boolean stackTrace, final Object... message) {
+        super();
+        parts = message;
+        if (stackTrace)
+            super.fillInStackTrace();
+    }
+
+    /**
+     * Fills in the stack trace only when the exception is created with one, the constructors call it
+     * explicitly if needed
+     * @return This exception
+     */
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+
+    @Override
+    public synchronized String getMessage() {
+        if (parts != null) {
+            final StringBuilder message = new StringBuilder();
+            for (final Object part : parts)
+                message.append(part);
+            lazyMessage = message.toString();
+            parts = null;
+        }
+        return lazyMessage == null ? super.getMessage() : lazyMessage;
+    }
+
+    private void writeObject(final ObjectOutputStream stream) throws IOException {
+        getMessage();
+        stream.defaultWriteObject();
     }
 }
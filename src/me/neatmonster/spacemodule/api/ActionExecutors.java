@@ -0,0 +1,130 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors asynchronous Actions run on
+ */
+public final class ActionExecutors {
+    private static final long PURGE_INTERVAL        = 30L;
+    private static final int  UNBOUNDED_CONCURRENCY = 256;
+
+    private ActionExecutors() {}
+
+    /**
+     * Creates an executor running actions on a bounded pool of daemon threads
+     * @param threads Maximum number of actions running at once
+     * @param queueSize Maximum number of actions waiting for a thread, further ones are rejected
+     * @return The executor
+     */
+    public static ExecutorService newBoundedExecutor(final int threads, final int queueSize) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), new DaemonThreadFactory("SpaceModule Action Worker"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates an executor running each action on its own virtual thread
+     * @return The executor, null if the runtime does not support virtual threads
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates the default executor: virtual threads when supported, a bounded pool sized on the number of
+     * processors otherwise
+     * @return The executor
+     */
+    public static ExecutorService newDefaultExecutor() {
+        final ExecutorService executor = newVirtualThreadExecutor();
+        if (executor != null)
+            return executor;
+        final int threads = getDefaultConcurrency();
+        return newBoundedExecutor(threads, threads * 64);
+    }
+
+    /**
+     * Gets the number of actions an executor can run at once: the maximum size of a thread pool, or a
+     * fixed limit for virtual threads and the executors without one
+     * @param executor The executor
+     * @return Concurrency of the executor
+     */
+    public static int getConcurrency(final ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor)
+            return Math.min(((ThreadPoolExecutor) executor).getMaximumPoolSize(), UNBOUNDED_CONCURRENCY);
+        return UNBOUNDED_CONCURRENCY;
+    }
+
+    /**
+     * Gets the default number of actions running at once, based on the number of processors
+     * @return Default concurrency
+     */
+    public static int getDefaultConcurrency() {
+        return Math.max(2, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates the single thread cancelling actions that exceed their timeout.
+     * Timeouts of the actions done in time are cancelled but stay queued until they would have elapsed,
+     * so the timer purges them periodically.
+     * @return The timer
+     */
+    static ScheduledExecutorService newTimeoutTimer() {
+        final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+                new DaemonThreadFactory("SpaceModule Action Timeout"));
+        timer.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                timer.purge();
+            }
+        }, PURGE_INTERVAL, PURGE_INTERVAL, TimeUnit.SECONDS);
+        return timer;
+    }
+
+    /**
+     * Creates named daemon threads, so pending actions never keep the Wrapper alive
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final String        name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        DaemonThreadFactory(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, name + " #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+/**
+ * Called when the handler of an Action throws an exception, which is the cause
+ */
+public class ActionFailedException extends ActionException {
+    private static final long serialVersionUID = 3316540932377842180L;
+
+    /**
+     * Creates a new ActionFailedException with an error message and the exception the handler threw
+     * @param message Error message
+     * @param throwable Exception the handler threw
+     */
+    public ActionFailedException(final String message, final Throwable throwable) {
+        super(message, throwable);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates an ActionIndex for every class declaring Actions, so ActionsManager can register the class
+ * without scanning it and call it's actions without reflection
+ */
+@SupportedAnnotationTypes("me.neatmonster.spacemodule.api.Action")
+public class ActionIndexProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnvironment) {
+        final Set<TypeElement> handlers = new LinkedHashSet<TypeElement>();
+        for (final Element element : roundEnvironment.getElementsAnnotatedWith(Action.class))
+            if (element.getKind() == ElementKind.METHOD)
+                handlers.add((TypeElement) element.getEnclosingElement());
+        for (final TypeElement handler : handlers)
+            if (isIndexable(handler))
+                try {
+                    writeIndex(handler);
+                } catch (final IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "Could not write the action index: " + e.getMessage(), handler);
+                }
+        return false;
+    }
+
+    /**
+     * Checks if a generated class in the same package can instantiate and call a handler
+     * @param handler Handler class
+     * @return If the handler can be indexed
+     */
+    private boolean isIndexable(final TypeElement handler) {
+        if (handler.getKind() != ElementKind.CLASS || handler.getModifiers().contains(Modifier.ABSTRACT))
+            return false;
+        for (Element element = handler; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            final TypeElement type = (TypeElement) element;
+            if (type.getModifiers().contains(Modifier.PRIVATE) || type.getNestingKind() == NestingKind.LOCAL
+                    || type.getNestingKind() == NestingKind.ANONYMOUS) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "Not indexing actions of an inaccessible class, they will be registered reflectively", handler);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeIndex(final TypeElement handler) throws IOException {
+        final String packageName = processingEnv.getElementUtils().getPackageOf(handler).getQualifiedName().toString();
+        final String binaryName = processingEnv.getElementUtils().getBinaryName(handler).toString();
+        final String indexName = binaryName.substring(binaryName.lastIndexOf('.') + 1) + "$ActionIndex";
+        final String handlerType = processingEnv.getTypeUtils().erasure(handler.asType()).toString();
+
+        final List<ExecutableElement> methods = new ArrayList<ExecutableElement>();
+        for (final ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(handler)))
+            if (method.getAnnotation(Action.class) != null && method.getModifiers().contains(Modifier.PUBLIC)
+                    && !method.getModifiers().contains(Modifier.STATIC))
+                methods.add(method);
+
+        final PrintWriter writer = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName.length() == 0 ? indexName : packageName + "." + indexName, handler)
+                .openWriter());
+        try {
+            if (packageName.length() > 0)
+                writer.println("package " + packageName + ";");
+            writer.println();
+            writer.println("/**");
+            writer.println(" * Action index of " + handlerType + ", generated by " + getClass().getName());
+            writer.println(" */");
+            writer.println("public final class " + indexName + " implements " + ActionIndex.class.getName() + " {");
+            writer.println();
+            writer.println("    @Override");
+            writer.println("    public " + IndexedAction.class.getName() + "[] getActions() {");
+            writer.println("        return new " + IndexedAction.class.getName() + "[] {");
+            for (final ExecutableElement method : methods)
+                writeAction(writer, handlerType, method);
+            writer.println("        };");
+            writer.println("    }");
+            writer.println("}");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void writeAction(final PrintWriter writer, final String handlerType, final ExecutableElement method) {
+        final List<? extends VariableElement> parameters = method.getParameters();
+        final StringBuilder types = new StringBuilder();
+        final StringBuilder arguments = new StringBuilder();
+        for (int p = 0; p < parameters.size(); p++) {
+            final TypeMirror type = processingEnv.getTypeUtils().erasure(parameters.get(p).asType());
+            types.append(", ").append(type).append(".class");
+            if (p > 0)
+                arguments.append(", ");
+            arguments.append("(").append(boxed(type)).append(") arguments[").append(p).append("]");
+        }
+        final String call = "((" + handlerType + ") handler)." + method.getSimpleName() + "(" + arguments + ")";
+
+        writer.println("            new " + IndexedAction.class.getName() + "(\"" + method.getSimpleName() + "\"" + types + ") {");
+        writer.println("                @Override");
+        writer.println("                @SuppressWarnings(\"unchecked\")");
+        writer.println("                public Object invoke(final Object handler, final Object[] arguments) throws Throwable {");
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            writer.println("                    " + call + ";");
+            writer.println("                    return null;");
+        } else
+            writer.println("                    return " + call + ";");
+        writer.println("                }");
+        writer.println("            },");
+    }
+
+    private String boxed(final TypeMirror type) {
+        if (type.getKind().isPrimitive())
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        return type.toString();
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Precompiled dispatcher for a single Action, built once when its class is registered
+ */
+public class ActionInvoker {
+    private static final Gson         gson = new Gson();
+
+    private final Method              method;
+    private final IndexedAction       indexed;
+    private final Action              action;
+    private final Class<?>            handlerClass;
+    private final Class<?>[]          parameterTypes;
+    private final Class<?>[]          acceptedTypes;
+    private final ArgumentConverter[] converters;
+    private final ActionStatistics    statistics = new ActionStatistics();
+    private final Bulkhead            bulkhead;
+    private volatile TypeAdapter<?>[] jsonAdapters;
+    private volatile ActionHandler    handler;
+
+    /**
+     * Creates a new ActionInvoker
+     * @param handlerClass Class the action is registered from
+     * @param method Method to dispatch to
+     * @param indexed Direct call to the method from an ActionIndex, null to call it reflectively
+     * @param registry Registry to resolve the converters of the parameters from
+     * @throws IllegalArgumentException If the action is chunked and also cached or coalesced
+     */
+    ActionInvoker(final Class<?> handlerClass, final Method method, final IndexedAction indexed,
+            final ConverterRegistry registry) {
+        this.method = method;
+        this.indexed = indexed;
+        this.handlerClass = handlerClass;
+        action = method.getAnnotation(Action.class);
+        if (action.chunkSize() > 0 && (action.cacheTtl() > 0L || action.coalesce()))
+            // The chunks may come from a lazy Iterator, which a single caller can read only once
+            throw new IllegalArgumentException("Chunked action " + method.getName()
+                    + " can be neither cached nor coalesced.");
+        parameterTypes = method.getParameterTypes();
+        final Type[] genericTypes = method.getGenericParameterTypes();
+        acceptedTypes = new Class<?>[parameterTypes.length];
+        converters = new ArgumentConverter[parameterTypes.length];
+        for (int p = 0; p < parameterTypes.length; p++) {
+            // Instances of a parameterized type may still hold elements needing a conversion
+            acceptedTypes[p] = genericTypes[p] instanceof Class ? ArgumentConverters.wrap(parameterTypes[p]) : null;
+            converters[p] = registry.get(genericTypes[p]);
+        }
+        bulkhead = action.maxConcurrency() > 0 ? new Bulkhead(action.maxConcurrency(), action.queueDepth()) : null;
+        if (indexed == null)
+            try {
+                // Skips the access check Method.invoke otherwise performs on every call
+                method.setAccessible(true);
+            } catch (final SecurityException e) {}
+    }
+
+    /**
+     * Gets the Action annotation of the method
+     * @return Action annotation
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Gets the statistics of the calls to the action
+     * @return Statistics of the action
+     */
+    public ActionStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Gets the bulkhead limiting the concurrent calls to the action
+     * @return Bulkhead, null if the calls are not limited
+     */
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * Gets the class the action is registered from
+     * @return Handler class
+     */
+    public Class<?> getHandlerClass() {
+        return handlerClass;
+    }
+
+    /**
+     * Gets the handler the invoker is bound to
+     * @return Bound handler, null if not bound yet
+     */
+    ActionHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Binds the invoker to a handler instance
+     * @param handler Handler to bind to
+     */
+    void bind(final ActionHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Gets the name of the method
+     * @return Method name
+     */
+    public String getName() {
+        return method.getName();
+    }
+
+    /**
+     * Gets the number of parameters of the method
+     * @return Number of parameters
+     */
+    public int getParameterCount() {
+        return parameterTypes.length;
+    }
+
+    /**
+     * Gets the type of a parameter without copying the parameter array
+     * @param index Index of the parameter
+     * @return Type of the parameter
+     */
+    public Class<?> getParameterType(final int index) {
+        return parameterTypes[index];
+    }
+
+    /**
+     * Coerces arguments in place to the parameter types of the method
+     * @param arguments Arguments to coerce
+     * @throws InvalidArgumentsException If an argument is null or cannot be converted
+     */
+    void coerce(final Object[] arguments) throws InvalidArgumentsException {
+        for (int a = 0; a < acceptedTypes.length; a++) {
+            final Object argument = arguments[a];
+            if (argument == null)
+                throw new InvalidArgumentsException(false, "null parameters are not allowed for method ", getName(), ".");
+            if (acceptedTypes[a] != null && acceptedTypes[a].isInstance(argument))
+                continue;
+            final Object converted = converters[a] == null ? null : converters[a].convert(argument);
+            if (converted == null)
+                throw new InvalidArgumentsException(false, parameterTypes[a].getSimpleName(), " (",
+                        parameterTypes[a].getName(), ") expected, not ", argument.getClass().getSimpleName(), " (",
+                        argument.getClass().getName(), ") for method ", getName(), ".");
+            arguments[a] = converted;
+        }
+    }
+
+    /**
+     * Decodes a JSON array straight into arguments of the parameter types of the method
+     * @param json Reader of the JSON array
+     * @return The decoded arguments
+     * @throws InvalidArgumentsException If the JSON is malformed or doesn't match the parameters
+     */
+    Object[] decode(final Reader json) throws InvalidArgumentsException {
+        final TypeAdapter<?>[] adapters = getJsonAdapters();
+        final Object[] arguments = new Object[adapters.length];
+        final JsonReader reader = new JsonReader(json);
+        try {
+            reader.beginArray();
+            int count = 0;
+            for (; count < adapters.length && reader.hasNext(); count++)
+                arguments[count] = adapters[count].read(reader);
+            for (; reader.hasNext(); count++)
+                reader.skipValue();
+            reader.endArray();
+            if (count != adapters.length)
+                throw new InvalidArgumentsException(false, adapters.length, " arguments expected, not ", count,
+                        " for method ", getName(), ".");
+        } catch (final IOException e) {
+            throw malformed(e);
+        } catch (final JsonParseException e) {
+            throw malformed(e);
+        } catch (final IllegalStateException e) {
+            throw malformed(e);
+        } catch (final NumberFormatException e) {
+            throw malformed(e);
+        }
+        return arguments;
+    }
+
+    private InvalidArgumentsException malformed(final Exception e) {
+        return new InvalidArgumentsException(false, "Malformed JSON arguments for method ", getName(), ": ", e.getMessage());
+    }
+
+    /**
+     * Resolves everything the first call would otherwise resolve, without invoking the method
+     */
+    void prepare() {
+        getJsonAdapters();
+    }
+
+    /**
+     * Gets the JSON adapters of the parameters, resolving them on the first call
+     * @return One adapter per parameter
+     */
+    private TypeAdapter<?>[] getJsonAdapters() {
+        TypeAdapter<?>[] adapters = jsonAdapters;
+        if (adapters == null) {
+            final Type[] types = method.getGenericParameterTypes();
+            adapters = new TypeAdapter<?>[types.length];
+            for (int p = 0; p < types.length; p++)
+                adapters[p] = gson.getAdapter(TypeToken.get(types[p]));
+            jsonAdapters = adapters;
+        }
+        return adapters;
+    }
+
+    /**
+     * Invokes the method on the bound handler
+     * @param arguments Arguments to invoke the method with
+     * @return The result of the method
+     * @throws IllegalAccessException If the method is not accessible
+     * @throws InvocationTargetException If the method threw an exception
+     */
+    Object invoke(final Object[] arguments) throws IllegalAccessException, InvocationTargetException {
+        if (indexed == null)
+            return method.invoke(handler, arguments);
+        try {
+            return indexed.invoke(handler, arguments);
+        } catch (final Throwable throwable) {
+            throw new InvocationTargetException(throwable);
+        }
+    }
+}
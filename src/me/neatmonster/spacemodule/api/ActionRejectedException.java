@@ -0,0 +1,39 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+/**
+ * Called when an Action is not executed because too many calls to it are already running or waiting
+ */
+public class ActionRejectedException extends ActionException {
+    private static final long serialVersionUID = -2271960337562014875L;
+
+    /**
+     * Creates a new ActionRejectedException with an error message
+     * @param message Error message
+     */
+    public ActionRejectedException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Creates a new ActionRejectedException with an error message built when it is first read
+     * @param stackTrace If the stack trace is filled in
+     * @param message Parts of the error message, concatenated
+     */
+    public ActionRejectedException(final boolean stackTrace, final Object... message) {
+        super(stackTrace, message);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+/**
+ * Outcome of an ActionCall: either the result of the action or the error it failed with
+ */
+public class ActionResult {
+    private final Object          result;
+    private final ActionException error;
+
+    /**
+     * Creates a new successful ActionResult
+     * @param result Result of the action
+     */
+    public ActionResult(final Object result) {
+        this.result = result;
+        error = null;
+    }
+
+    /**
+     * Creates a new failed ActionResult
+     * @param error Error the action failed with
+     */
+    public ActionResult(final ActionException error) {
+        result = null;
+        this.error = error;
+    }
+
+    /**
+     * Gets the result of the action
+     * @return Result of the action, null if it failed
+     */
+    public Object getResult() {
+        return result;
+    }
+
+    /**
+     * Gets the error the action failed with
+     * @return Error, null if the action succeeded
+     */
+    public ActionException getError() {
+        return error;
+    }
+
+    /**
+     * Checks if the action succeeded
+     * @return If the action succeeded
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and latencies of the calls to an Action
+ */
+public class ActionStatistics {
+    private final AtomicLong       calls     = new AtomicLong();
+    private final AtomicLong       errors    = new AtomicLong();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * Records a call
+     * @param nanos Time the call took, in nanoseconds
+     */
+    void recordCall(final long nanos) {
+        calls.incrementAndGet();
+        latencies.record(nanos);
+    }
+
+    /**
+     * Records a failed call, in addition to recording the call itself
+     */
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of calls
+     * @return Number of calls
+     */
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * Gets the number of calls that failed
+     * @return Number of errors
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Gets the latencies of the calls
+     * @return Latency histogram
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Gets a summary of the statistics, in a form that can be sent to the Panel
+     * @return Calls, errors and the 50th, 99th and 99.9th latency percentiles in milliseconds
+     */
+    public Map<String, Object> toMap() {
+        final Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("calls", getCalls());
+        map.put("errors", getErrors());
+        map.put("p50", latencies.getPercentile(50D) / 1000000D);
+        map.put("p99", latencies.getPercentile(99D) / 1000000D);
+        map.put("p999", latencies.getPercentile(99.9D) / 1000000D);
+        return map;
+    }
+}
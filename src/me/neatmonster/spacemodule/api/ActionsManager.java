@@ -14,19 +14,77 @@
  */
 package me.neatmonster.spacemodule.api;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
- * Manages actions and calls them
+ * Manages actions and calls them.
+ * Lookups never lock: the alias table is an immutable snapshot replaced as a whole on every
+ * (un)registration, so it is safe to execute actions from several threads at once.
  */
 public class ActionsManager {
-    protected Map<String, Method> actions = new HashMap<String, Method>();
-    protected Map<Class<?>, ActionHandler> handlers = new HashMap<Class<?>, ActionHandler>();
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    protected volatile Map<String, ActionInvoker> actions = Collections.emptyMap();
+    protected volatile AliasIndex aliasIndex = new AliasIndex(actions);
+    protected final ConcurrentMap<Class<?>, ActionHandler> handlers = new ConcurrentHashMap<Class<?>, ActionHandler>();
+    private final Object lock = new Object();
+
+    protected final ResultCache resultCache = new ResultCache(1024);
+    protected final ConverterRegistry converters = new ConverterRegistry();
+    protected final CallTracer tracer = new CallTracer(256);
+    private final ConcurrentMap<CallKey, FutureTask<Object>> inFlight = new ConcurrentHashMap<CallKey, FutureTask<Object>>();
+    private final ThreadLocal<Set<CallKey>> leading = new ThreadLocal<Set<CallKey>>() {
+        @Override
+        protected Set<CallKey> initialValue() {
+            return new HashSet<CallKey>();
+        }
+    };
+
+    private volatile boolean          eagerWarmUp;
+    private volatile ExecutorService  executor;
+    private int                       concurrency;
+    private volatile PriorityLanes    lanes;
+    private ScheduledExecutorService  timeoutTimer;
+    private ObjectName                monitorName;
+
+    /**
+     * Creates a new ActionsManager, with the built-in actions registered
+     */
+    public ActionsManager() {
+        register(new BuiltinActions(this));
+    }
 
     /**
      * Casts an object
@@ -36,129 +94,646 @@ public class ActionsManager {
      * @return The casted object, null if couldn't be casted
      */
     public Object cast(final Object object, final Class<?> current, final Class<?> expected) {
+        if (ArgumentConverters.wrap(expected).isInstance(object))
+            return object;
+        final ArgumentConverter converter = converters.get(expected);
+        return converter == null ? null : converter.convert(object);
+    }
+
+    /**
+     * Gets the registry of the converters used to coerce arguments, custom converters have to be
+     * registered before the classes using them
+     * @return Converter registry
+     */
+    public ConverterRegistry getConverters() {
+        return converters;
+    }
+
+    /**
+     * Checks if an action is defined by an alias
+     * @param alias Alias to check
+     * @return If an action is defined
+     */
+    public boolean contains(final String alias) {
+        return aliasIndex.get(alias) != null;
+    }
+
+    /**
+     * Executes an action
+     * @param alias Action name
+     * @param arguments Arguments to execute the action with
+     * @return Result of the action, null if it failed or too many calls to it were already running
+     * @throws InvalidArgumentsException If an action cannot be found
+     * @throws UnhandledActionException If an action is unhandled
+     */
+    public Object execute(final String alias, final Object... arguments) throws InvalidArgumentsException,
+            UnhandledActionException {
         try {
-            if (expected == Object[].class)
-                if (current.isArray())
-                    return Arrays.asList(object).toArray();
-                else if (current.isAssignableFrom(List.class))
-                    return ((List<?>) object).toArray();
-                else
-                    return new Object[] {object};
-            final String string = object.toString();
-            if (expected == String.class)
-                return string;
+            return execute(lookup(alias), arguments);
+        } catch (final ActionFailedException e) {
+            return null;
+        } catch (final ActionRejectedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Executes an action and reads it's result in chunks, as many as the action's chunkSize elements at a
+     * time. An action returning a lazy Iterator or Iterable only produces the elements as they are read.
+     * @param alias Action name
+     * @param arguments Arguments to execute the action with
+     * @return Chunks of the result, to be closed if not read until the end
+     * @throws InvalidArgumentsException If an action cannot be found
+     * @throws UnhandledActionException If an action is unhandled
+     * @throws ActionRejectedException If too many calls to the action are already running
+     * @throws ActionFailedException If the action threw an exception
+     */
+    public ChunkedResult executeChunked(final String alias, final Object... arguments)
+            throws InvalidArgumentsException, UnhandledActionException, ActionRejectedException,
+            ActionFailedException {
+        final ActionInvoker invoker = lookup(alias);
+        final int chunkSize = invoker.getAction().chunkSize();
+        return new ChunkedResult(execute(invoker, arguments), chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE);
+    }
 
-            else if (expected == Character.class || expected == char.class)
-                return string.charAt(0);
+    /**
+     * Resolves the action defined by an alias once, for callers executing it repeatedly.
+     * The returned invoker stays valid until it's class is unregistered.
+     * @param alias Action name
+     * @return Invoker of the action
+     * @throws UnhandledActionException If the action is not defined
+     */
+    public ActionInvoker resolve(final String alias) throws UnhandledActionException {
+        return lookup(alias);
+    }
+
+    /**
+     * Executes an action with arguments encoded as a JSON array, decoding each element straight into the
+     * type of it's parameter
+     * @param alias Action name
+     * @param json Reader of the JSON array of arguments
+     * @return Result of the action, null if it failed or too many calls to it were already running
+     * @throws InvalidArgumentsException If the JSON is malformed or doesn't match the action
+     * @throws UnhandledActionException If an action is unhandled
+     */
+    public Object executeJson(final String alias, final Reader json) throws InvalidArgumentsException,
+            UnhandledActionException {
+        final ActionInvoker invoker = lookup(alias);
+        try {
+            return execute(invoker, 0L, null, json);
+        } catch (final ActionFailedException e) {
+            return null;
+        } catch (final ActionRejectedException e) {
+            return null;
+        }
+    }
 
-            else if (expected == Byte.class || expected == byte.class)
-                return Byte.parseByte(string);
+    /**
+     * Executes an action with arguments encoded as a UTF-8 JSON array
+     * @param alias Action name
+     * @param json Stream of the JSON array of arguments
+     * @return Result of the action, null if it failed or too many calls to it were already running
+     * @throws InvalidArgumentsException If the JSON is malformed or doesn't match the action
+     * @throws UnhandledActionException If an action is unhandled
+     */
+    public Object executeJson(final String alias, final InputStream json) throws InvalidArgumentsException,
+            UnhandledActionException {
+        return executeJson(alias, new InputStreamReader(json, UTF8));
+    }
 
-            else if (expected == Short.class || expected == short.class)
-                return Short.parseShort(string);
+    /**
+     * Executes an action with arguments encoded as a UTF-8 JSON array
+     * @param alias Action name
+     * @param json Bytes of the JSON array of arguments
+     * @return Result of the action, null if it failed or too many calls to it were already running
+     * @throws InvalidArgumentsException If the JSON is malformed or doesn't match the action
+     * @throws UnhandledActionException If an action is unhandled
+     */
+    public Object executeJson(final String alias, final byte[] json) throws InvalidArgumentsException,
+            UnhandledActionException {
+        return executeJson(alias, new ByteArrayInputStream(json));
+    }
 
-            else if (expected == Integer.class || expected == int.class)
-                return Integer.parseInt(string);
+    /**
+     * Executes a resolved action
+     * @param invoker Invoker of the action, as resolved by resolve(String)
+     * @param arguments Arguments to execute the action with
+     * @return Result of the action
+     * @throws InvalidArgumentsException If the arguments do not match the action
+     * @throws ActionRejectedException If too many calls to the action are already running
+     * @throws ActionFailedException If the action threw an exception
+     */
+    public Object execute(final ActionInvoker invoker, final Object... arguments) throws InvalidArgumentsException,
+            ActionRejectedException, ActionFailedException {
+        return execute(invoker, 0L, arguments, null);
+    }
 
-            else if (expected == Long.class || expected == long.class)
-                return Long.parseLong(string);
+    /**
+     * Executes a resolved action, recording it's statistics and, if it is sampled, it's trace
+     * @param invoker Invoker of the action
+     * @param submitted Time the call was submitted to the executor, in nanoseconds, 0 if it is synchronous
+     * @param arguments Arguments to execute the action with, null to decode them from the JSON
+     * @param json Reader of the JSON array of arguments, null if the arguments are given
+     * @return Result of the action
+     * @throws InvalidArgumentsException If the arguments, or the JSON, do not match the action
+     * @throws ActionRejectedException If too many calls to the action are already running
+     * @throws ActionFailedException If the action threw an exception
+     */
+    private Object execute(final ActionInvoker invoker, final long submitted, final Object[] arguments,
+            final Reader json) throws InvalidArgumentsException, ActionRejectedException, ActionFailedException {
+        final ActionStatistics statistics = invoker.getStatistics();
+        final boolean sampled = tracer.sample();
+        final long start = System.nanoTime();
+        String summary = null;
+        String outcome = "error";
+        try {
+            final Object[] decoded = arguments == null ? invoker.decode(json) : arguments;
+            if (sampled)
+                summary = CallTracer.summarize(decoded);
+            final Object result = dispatch(invoker, decoded);
+            outcome = "completed";
+            return result;
+        } catch (final InvalidArgumentsException e) {
+            statistics.recordError();
+            outcome = "invalid";
+            throw e;
+        } catch (final ActionRejectedException e) {
+            statistics.recordError();
+            outcome = "rejected";
+            throw e;
+        } catch (final ActionFailedException e) {
+            statistics.recordError();
+            outcome = "failed";
+            throw e;
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+            statistics.recordCall(elapsed);
+            if (sampled)
+                tracer.record(new CallTrace(System.currentTimeMillis() - elapsed / 1000000L,
+                        invoker.getAction().aliases()[0], summary, submitted == 0L ? 0L : start - submitted,
+                        elapsed, outcome, Thread.currentThread().getName()));
+        }
+    }
 
-            else if (expected == Float.class || expected == float.class)
-                return Float.parseFloat(string);
+    /**
+     * Checks the arguments of an action and calls it, or serves it from the result cache
+     * @param invoker Invoker of the action
+     * @param arguments Arguments to execute the action with
+     * @return Result of the action
+     * @throws InvalidArgumentsException If the arguments do not match the action
+     * @throws ActionRejectedException If too many calls to the action are already running
+     * @throws ActionFailedException If the action threw an exception
+     */
+    private Object dispatch(final ActionInvoker invoker, final Object[] arguments) throws InvalidArgumentsException,
+            ActionRejectedException, ActionFailedException {
+        final int parameterCount = invoker.getParameterCount();
+        if(parameterCount != arguments.length)
+            throw new InvalidArgumentsException(false, parameterCount, " arguments expected, not ",
+                    arguments.length, " for method ", invoker.getName(), ".");
 
-            else if (expected == Double.class || expected == double.class)
-                return Double.parseDouble(string);
+        invoker.coerce(arguments);
+        final long cacheTtl = invoker.getAction().cacheTtl();
+        final boolean coalesce = invoker.getAction().coalesce();
+        if (cacheTtl <= 0L && !coalesce)
+            return admit(invoker, arguments);
 
-            else if (expected == Boolean.class || expected == boolean.class)
-                return Boolean.parseBoolean(string);
+        final CallKey key = new CallKey(invoker, arguments.clone());
+        if (cacheTtl > 0L) {
+            final Object cached = resultCache.get(key);
+            if (cached != null)
+                return cached;
+        }
+        final Object result = coalesce ? coalesce(key, invoker, arguments) : admit(invoker, arguments);
+        if (cacheTtl > 0L && result != null && !(result instanceof Iterator))
+            resultCache.put(key, result, cacheTtl);
+        return result;
+    }
 
-            return null;
+    /**
+     * Invokes an action, or waits for an identical call already running and shares it's result.
+     * A call made again from within itself, on the thread running it, is invoked directly.
+     * @param key Identity of the call
+     * @param invoker Invoker of the action
+     * @param arguments Arguments to involke the action with
+     * @return The result of the action
+     * @throws ActionRejectedException If too many calls to the action are already running
+     * @throws ActionFailedException If the action threw an exception
+     */
+    private Object coalesce(final CallKey key, final ActionInvoker invoker, final Object[] arguments)
+            throws ActionRejectedException, ActionFailedException {
+        final Set<CallKey> keys = leading.get();
+        if (keys.contains(key)) // Waiting for the running call would wait for this very thread
+            return admit(invoker, arguments);
+        final FutureTask<Object> task = new FutureTask<Object>(new Callable<Object>() {
+            @Override
+            public Object call() throws ActionException {
+                return admit(invoker, arguments);
+            }
+        });
+        final FutureTask<Object> running = inFlight.putIfAbsent(key, task);
+        if (running == null) {
+            keys.add(key);
+            try {
+                task.run();
+            } finally {
+                keys.remove(key);
+                inFlight.remove(key, task);
+            }
+        }
+        try {
+            return (running == null ? task : running).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ActionRejectedException("Interrupted while waiting for " + invoker.getName() + ".");
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ActionRejectedException)
+                throw (ActionRejectedException) cause;
+            if (cause instanceof ActionFailedException)
+                throw (ActionFailedException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
 
-        } catch (final Exception e) {
-            return null;
+    /**
+     * Invokes an action once it's bulkhead lets the call in
+     * @param invoker Invoker of the action
+     * @param arguments Arguments to involke the action with
+     * @return The result of the action
+     * @throws ActionRejectedException If too many calls to the action are already running
+     * @throws ActionFailedException If the action threw an exception
+     */
+    private Object admit(final ActionInvoker invoker, final Object[] arguments) throws ActionRejectedException,
+            ActionFailedException {
+        final Bulkhead bulkhead = invoker.getBulkhead();
+        if (bulkhead == null)
+            return invoke(invoker, arguments);
+        bulkhead.acquire(invoker.getName());
+        try {
+            return invoke(invoker, arguments);
+        } finally {
+            bulkhead.release();
         }
     }
 
     /**
-     * Checks if an action is defined by an alias
-     * @param alias Alias to check
-     * @return If an action is defined
+     * Gets the cache holding the results of cacheable actions
+     * @return The result cache
      */
-    public boolean contains(final String alias) {
-        return actions.containsKey(alias.toLowerCase());
+    public ResultCache getResultCache() {
+        return resultCache;
     }
 
     /**
-     * Executes an action
+     * Gets the statistics of every registered action
+     * @return Statistics by action name, the first alias of each action
+     */
+    public Map<String, ActionStatistics> getStatistics() {
+        final Map<String, ActionStatistics> statistics = new TreeMap<String, ActionStatistics>();
+        for (final ActionInvoker invoker : actions.values())
+            statistics.put(invoker.getAction().aliases()[0], invoker.getStatistics());
+        return statistics;
+    }
+
+    /**
+     * Gets the tracer recording a sample of the calls, with sampling off by default
+     * @return The call tracer
+     */
+    public CallTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Exposes the statistics of the actions over JMX, as an ActionsMonitor
+     * @param name Name to register the monitor under, such as "me.neatmonster.spacemodule:type=ActionsManager"
+     */
+    public void registerMonitor(final String name) {
+        synchronized (lock) {
+            unregisterMonitor();
+            try {
+                final ObjectName objectName = new ObjectName(name);
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new ActionsMonitor(this), objectName);
+                monitorName = objectName;
+            } catch (final JMException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Removes the ActionsMonitor from JMX, so it doesn't keep the manager alive after an unload
+     */
+    public void unregisterMonitor() {
+        synchronized (lock) {
+            if (monitorName == null)
+                return;
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(monitorName);
+            } catch (final JMException e) {
+                e.printStackTrace();
+            }
+            monitorName = null;
+        }
+    }
+
+    /**
+     * Executes several independent actions, one after another
+     * @param calls Calls to execute
+     * @return Results of the calls, in the same order
+     */
+    public List<ActionResult> executeBatch(final List<ActionCall> calls) {
+        return executeBatch(calls, null);
+    }
+
+    /**
+     * Executes several independent actions.
+     * All aliases are resolved before anything runs. Calls to the same handler are grouped and run one
+     * after another, while different handlers run in parallel on the executor if one is given.
+     * @param calls Calls to execute
+     * @param executor Executor to run the handler groups on, null to run them on the calling thread
+     * @return Results of the calls, in the same order
+     */
+    public List<ActionResult> executeBatch(final List<ActionCall> calls, final ExecutorService executor) {
+        final ActionResult[] results = new ActionResult[calls.size()];
+        final ActionInvoker[] invokers = new ActionInvoker[calls.size()];
+        final Map<Class<?>, List<Integer>> groups = new LinkedHashMap<Class<?>, List<Integer>>();
+        for (int c = 0; c < invokers.length; c++) {
+            try {
+                invokers[c] = lookup(calls.get(c).getAlias());
+            } catch (final UnhandledActionException e) {
+                results[c] = new ActionResult(e);
+                continue;
+            }
+            List<Integer> group = groups.get(invokers[c].getHandlerClass());
+            if (group == null) {
+                group = new ArrayList<Integer>();
+                groups.put(invokers[c].getHandlerClass(), group);
+            }
+            group.add(c);
+        }
+
+        final List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (final List<Integer> group : groups.values()) {
+            final Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    for (final int c : group)
+                        try {
+                            results[c] = new ActionResult(execute(invokers[c], calls.get(c).getArguments()));
+                        } catch (final ActionException e) {
+                            results[c] = new ActionResult(e);
+                        }
+                }
+            };
+            if (executor == null || groups.size() == 1)
+                task.run();
+            else
+                futures.add(executor.submit(task));
+        }
+        boolean interrupted = false;
+        for (final Future<?> future : futures)
+            if (interrupted)
+                future.cancel(true);
+            else
+                try {
+                    future.get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    interrupted = true;
+                    future.cancel(true);
+                } catch (final ExecutionException e) {
+                    e.printStackTrace();
+                }
+
+        // Groups cancelled on an interrupt may still be writing their results, so a copy is returned
+        final ActionResult[] completed = results.clone();
+        for (int c = 0; c < completed.length; c++)
+            if (completed[c] == null)
+                completed[c] = new ActionResult(new ActionException("Call to " + calls.get(c).getAlias()
+                        + " did not complete."));
+        return Arrays.asList(completed);
+    }
+
+    /**
+     * Executes an action asynchronously on the executor, waiting in the lane of the action's priority.
+     * The returned future can be cancelled, and is cancelled automatically once the timeout of the
+     * action elapses.
      * @param alias Action name
      * @param arguments Arguments to execute the action with
-     * @return Result of the action
-     * @throws InvalidArgumentsException If an action cannot be found
+     * @return Future result of the action, failing with an InvalidArgumentsException if the arguments do
+     *         not match the action, an ActionRejectedException if too many calls to it are running or an
+     *         ActionFailedException if it threw an exception
      * @throws UnhandledActionException If an action is unhandled
      */
-    public Object execute(final String alias, final Object... arguments) throws InvalidArgumentsException,
-            UnhandledActionException {
-        final Method method = actions.get(alias.toLowerCase());
-        if (method == null)
-            throw new UnhandledActionException();
-
-        if(method.getParameterTypes().length != arguments.length)
-            throw new InvalidArgumentsException(method.getParameterTypes().length + " arguments expected, not "
-                    + arguments.length + " for method " + method.getName() + ".");
-
-        for (int a = 0; a < method.getParameterTypes().length; a++) {
-            if(arguments[a] == null || arguments[a].getClass() == null || arguments[a].getClass().getName() == null) //XXX: This is ugly and needs to burn
-                throw new InvalidArgumentsException("null parameters are not allowed for method " + method.getName() + ".");
-            if (!arguments[a].getClass().getName().equals(method.getParameterTypes()[a].getName())) {
-                final Object casted = cast(arguments[a], arguments[a].getClass(), method.getParameterTypes()[a]);
-                if (casted == null)
-                    throw new InvalidArgumentsException(method.getParameterTypes()[a].getSimpleName() + " ("
-                            + method.getParameterTypes()[a].getName() + ") expected, not "
-                            + arguments[a].getClass().getSimpleName() + " (" + arguments[a].getClass().getName()
-                            + ") for method " + method.getName() + ".");
-                else
-                    arguments[a] = casted;
+    public Future<Object> executeAsync(final String alias, final Object... arguments) throws UnhandledActionException {
+        final ActionInvoker invoker = lookup(alias);
+        return executeAsync(invoker, invoker.getAction().priority(), arguments);
+    }
+
+    /**
+     * Executes an action asynchronously on the executor, in the lane of another priority than it's own,
+     * such as BULK for scheduled calls
+     * @param priority Priority of the call
+     * @param alias Action name
+     * @param arguments Arguments to execute the action with
+     * @return Future result of the action
+     * @throws UnhandledActionException If an action is unhandled
+     * @see #executeAsync(String, Object...)
+     */
+    public Future<Object> executeAsync(final Priority priority, final String alias, final Object... arguments)
+            throws UnhandledActionException {
+        return executeAsync(lookup(alias), priority, arguments);
+    }
+
+    private Future<Object> executeAsync(final ActionInvoker invoker, final Priority priority, final Object[] arguments) {
+        final long submitted = System.nanoTime();
+        final TimedTask task = new TimedTask(new Callable<Object>() {
+            @Override
+            public Object call() throws ActionException {
+                return execute(invoker, submitted, arguments, null);
             }
+        });
+        try {
+            getLanes().execute(priority, task);
+        } catch (final RejectedExecutionException e) {
+            final FutureTask<Object> rejected = new FutureTask<Object>(new Callable<Object>() {
+                @Override
+                public Object call() throws ActionException {
+                    throw new ActionRejectedException(false, "Too many pending actions, ", invoker.getName(), " was rejected.");
+                }
+            });
+            rejected.run();
+            return rejected;
         }
-        return invoke(method, arguments);
+        final long timeout = invoker.getAction().timeout();
+        if (timeout > 0L)
+            task.setTimeout(getTimeoutTimer().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    task.cancel(true);
+                }
+            }, timeout, TimeUnit.MILLISECONDS));
+        return task;
     }
 
     /**
-     * Involkes a method
-     * @param method Method to involke
-     * @param arguments Arguments to involke the method with
-     * @return The result of the method
+     * Gets the executor asynchronous actions run on, creating the default one if none is set
+     * @return The executor
      */
-    protected Object invoke(final Method method, final Object... arguments) {
-        try {
-            ActionHandler handler = handlers.get(method.getDeclaringClass());
+    public ExecutorService getExecutor() {
+        ExecutorService executor = this.executor;
+        if (executor == null)
+            synchronized (lock) {
+                executor = this.executor;
+                if (executor == null)
+                    this.executor = executor = ActionExecutors.newDefaultExecutor();
+            }
+        return executor;
+    }
+
+    /**
+     * Sets the executor asynchronous actions run on, running as many at once as it has threads
+     * @param executor The executor, null to use the default one
+     */
+    public void setExecutor(final ExecutorService executor) {
+        setExecutor(executor, 0);
+    }
+
+    /**
+     * Sets the executor asynchronous actions run on
+     * @param executor The executor, null to use the default one
+     * @param concurrency Maximum number of actions running at once, 0 to size it from the executor
+     */
+    public void setExecutor(final ExecutorService executor, final int concurrency) {
+        synchronized (lock) {
+            this.executor = executor;
+            this.concurrency = concurrency;
+            lanes = null;
+        }
+    }
+
+    /**
+     * Gets the priority lanes asynchronous actions wait in before running on the executor
+     * @return The lanes
+     */
+    public PriorityLanes getLanes() {
+        PriorityLanes lanes = this.lanes;
+        if (lanes == null)
+            synchronized (lock) {
+                lanes = this.lanes;
+                if (lanes == null) {
+                    final ExecutorService executor = getExecutor();
+                    final int concurrency = this.concurrency > 0 ? this.concurrency
+                            : ActionExecutors.getConcurrency(executor);
+                    this.lanes = lanes = new PriorityLanes(executor, concurrency, concurrency * 64);
+                }
+            }
+        return lanes;
+    }
+
+    private ScheduledExecutorService getTimeoutTimer() {
+        synchronized (lock) {
+            if (timeoutTimer == null)
+                timeoutTimer = ActionExecutors.newTimeoutTimer();
+            return timeoutTimer;
+        }
+    }
+
+    /**
+     * Stops the executor and the timeout timer, cancelling pending asynchronous actions, and removes the
+     * monitor from JMX
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            unregisterMonitor();
+            if (lanes != null)
+                for (final Runnable pending : lanes.clear())
+                    ((Future<?>) pending).cancel(false);
+            lanes = null;
+            if (executor != null)
+                executor.shutdownNow();
+            executor = null;
+            if (timeoutTimer != null)
+                timeoutTimer.shutdownNow();
+            timeoutTimer = null;
+        }
+    }
+
+    /**
+     * Looks up the action defined by an alias
+     * @param alias Action name
+     * @return Invoker of the action
+     * @throws UnhandledActionException If the action is not defined
+     */
+    protected ActionInvoker lookup(final String alias) throws UnhandledActionException {
+        final ActionInvoker invoker = aliasIndex.get(alias);
+        if (invoker == null)
+            // Unknown aliases are common enough that the stack trace is not worth filling in
+            throw new UnhandledActionException(false, alias, " is not defined.");
+        return invoker;
+    }
 
+    /**
+     * Gets the handler of a class, creating it if needed
+     * @param handlerClass Class of the handler
+     * @return The handler
+     * @throws InstantiationException If the handler cannot be created
+     * @throws IllegalAccessException If the handler constructor is not accessible
+     */
+    protected ActionHandler getHandler(final Class<?> handlerClass) throws InstantiationException,
+            IllegalAccessException {
+        ActionHandler handler = handlers.get(handlerClass);
+        if(handler != null)
+            return handler;
+        synchronized (handlers) { // Handlers are created once, so contention here is limited to the first calls
+            handler = handlers.get(handlerClass);
             if(handler == null) {
-                handler = (ActionHandler)method.getDeclaringClass().newInstance();
-                handlers.put(method.getDeclaringClass(), handler);
+                handler = (ActionHandler)handlerClass.newInstance();
+                handlers.put(handlerClass, handler);
             }
-            return method.invoke(handler, arguments);
+        }
+        return handler;
+    }
+
+    /**
+     * Involkes an action
+     * @param invoker Invoker of the action
+     * @param arguments Arguments to involke the action with
+     * @return The result of the action
+     * @throws ActionFailedException If the action threw an exception, or it's handler couldn't be created
+     */
+    protected Object invoke(final ActionInvoker invoker, final Object... arguments) throws ActionFailedException {
+        Throwable failure;
+        try {
+            if(invoker.getHandler() == null)
+                invoker.bind(getHandler(invoker.getHandlerClass()));
+            return invoker.invoke(arguments);
 
         } catch (IllegalArgumentException e) {
-            e.printStackTrace();
+            failure = e;
 
         } catch (IllegalAccessException e) {
-            e.printStackTrace();
+            failure = e;
 
         } catch (InvocationTargetException e) {
-            e.printStackTrace();
+            failure = e.getCause();
 
         } catch (SecurityException e) {
-            e.printStackTrace();
+            failure = e;
 
         } catch (InstantiationException e) {
-            e.printStackTrace();
+            failure = e;
 
         } catch(ClassCastException e) {
-            e.printStackTrace();
+            failure = e;
 
         }
-        return null;
+        failure.printStackTrace();
+        throw new ActionFailedException("Action " + invoker.getName() + " failed: " + failure, failure);
     }
 
     /**
@@ -168,24 +743,142 @@ public class ActionsManager {
      * @throws UnhandledActionException If the action is not defined
      */
     public boolean isSchedulable(final String alias) throws UnhandledActionException {
-        final Method method = actions.get(alias.toLowerCase());
-        if (method == null)
-            throw new UnhandledActionException();
-        final Action action = method.getAnnotation(Action.class);
-        return action.schedulable();
+        return lookup(alias).getAction().schedulable();
     }
 
     /**
-     * Registeres a class and sets up it's actions
+     * Registeres a class and sets up it's actions.
+     * If an ActionIndex was generated for the class, the actions are read from it and called directly
+     * instead of scanning the class and calling them reflectively.
+     * With eager warm-up, the class is warmed up once registered.
      * @param class_ Class to register
+     * @throws IllegalArgumentException If an action of the class is chunked and also cached or coalesced,
+     *         in which case none of them is registered
      */
     public void register(final Class<?> class_) {
-        for (final Method method : class_.getMethods()) {
-            if (!method.isAnnotationPresent(Action.class))
-                continue;
-            final Action action = method.getAnnotation(Action.class);
-            for (final String alias : action.aliases())
-                actions.put(alias.toLowerCase(), method);
+        final Map<String, ActionInvoker> registered = new HashMap<String, ActionInvoker>();
+        final ActionIndex index = loadIndex(class_);
+        if (index != null)
+            for (final IndexedAction indexed : index.getActions()) {
+                final Method method;
+                try {
+                    method = class_.getMethod(indexed.getName(), indexed.getParameterTypes());
+                } catch (final NoSuchMethodException e) {
+                    e.printStackTrace();
+                    continue;
+                }
+                final ActionInvoker invoker = new ActionInvoker(class_, method, indexed, converters);
+                for (final String alias : invoker.getAction().aliases())
+                    registered.put(AliasIndex.fold(alias), invoker);
+            }
+        else
+            for (final Method method : class_.getMethods()) {
+                if (!method.isAnnotationPresent(Action.class))
+                    continue;
+                final ActionInvoker invoker = new ActionInvoker(class_, method, null, converters);
+                for (final String alias : invoker.getAction().aliases())
+                    registered.put(AliasIndex.fold(alias), invoker);
+            }
+        synchronized (lock) {
+            final Map<String, ActionInvoker> updated = new HashMap<String, ActionInvoker>(actions);
+            updated.putAll(registered);
+            actions = Collections.unmodifiableMap(updated);
+            aliasIndex = new AliasIndex(updated);
+        }
+        if (eagerWarmUp)
+            warmUp(class_);
+    }
+
+    /**
+     * Checks if classes are warmed up as soon as they are registered
+     * @return If the warm-up is eager
+     */
+    public boolean isEagerWarmUp() {
+        return eagerWarmUp;
+    }
+
+    /**
+     * Sets if classes are warmed up as soon as they are registered, so the first calls after a (re)load
+     * don't pay for creating the handlers
+     * @param eagerWarmUp If the warm-up is eager
+     */
+    public void setEagerWarmUp(final boolean eagerWarmUp) {
+        this.eagerWarmUp = eagerWarmUp;
+    }
+
+    /**
+     * Warms up every registered action
+     * @see #warmUp(Class)
+     */
+    public void warmUp() {
+        for (final ActionInvoker invoker : new HashSet<ActionInvoker>(actions.values()))
+            warmUp(invoker);
+    }
+
+    /**
+     * Warms up the actions of a class: creates and binds it's handler and resolves their argument
+     * decoders. The actions themselves are not called, as they may have side effects.
+     * @param class_ Class to warm up
+     */
+    public void warmUp(final Class<?> class_) {
+        for (final ActionInvoker invoker : new HashSet<ActionInvoker>(actions.values()))
+            if (invoker.getHandlerClass() == class_)
+                warmUp(invoker);
+    }
+
+    private void warmUp(final ActionInvoker invoker) {
+        try {
+            if (invoker.getHandler() == null)
+                invoker.bind(getHandler(invoker.getHandlerClass()));
+        } catch (final InstantiationException e) {
+            e.printStackTrace();
+        } catch (final IllegalAccessException e) {
+            e.printStackTrace();
+        }
+        invoker.prepare();
+    }
+
+    /**
+     * Loads the ActionIndex generated for a class
+     * @param class_ Class to load the index of
+     * @return The index, null if none was generated
+     */
+    private ActionIndex loadIndex(final Class<?> class_) {
+        try {
+            final Class<?> indexClass = Class.forName(class_.getName() + "$ActionIndex", true, class_.getClassLoader());
+            if (ActionIndex.class.isAssignableFrom(indexClass))
+                return (ActionIndex) indexClass.newInstance();
+        } catch (final ClassNotFoundException e) {
+        } catch (final Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Registers the class of a handler and sets up it's actions, calling them on this handler instead of
+     * creating a new one
+     * @param handler Handler to register
+     */
+    public void register(final ActionHandler handler) {
+        handlers.put(handler.getClass(), handler);
+        register(handler.getClass());
+    }
+
+    /**
+     * Unregisters a class, removing it's actions and dropping it's handler
+     * @param class_ Class to unregister
+     */
+    public void unregister(final Class<?> class_) {
+        synchronized (lock) {
+            final Map<String, ActionInvoker> updated = new HashMap<String, ActionInvoker>(actions);
+            for (final Iterator<ActionInvoker> iterator = updated.values().iterator(); iterator.hasNext();)
+                if (iterator.next().getHandlerClass() == class_)
+                    iterator.remove();
+            actions = Collections.unmodifiableMap(updated);
+            aliasIndex = new AliasIndex(updated);
         }
+        handlers.remove(class_);
+        resultCache.clear();
     }
 }
@@ -0,0 +1,67 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.Map;
+
+/**
+ * Exposes the statistics of an ActionsManager over JMX
+ */
+public class ActionsMonitor implements ActionsMonitorMBean {
+    private final ActionsManager actionsManager;
+
+    /**
+     * Creates a new ActionsMonitor
+     * @param actionsManager Manager to monitor
+     */
+    public ActionsMonitor(final ActionsManager actionsManager) {
+        this.actionsManager = actionsManager;
+    }
+
+    @Override
+    public String[] getActions() {
+        return actionsManager.getStatistics().keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public long getCalls(final String action) {
+        final ActionStatistics statistics = actionsManager.getStatistics().get(action);
+        return statistics == null ? -1L : statistics.getCalls();
+    }
+
+    @Override
+    public long getErrors(final String action) {
+        final ActionStatistics statistics = actionsManager.getStatistics().get(action);
+        return statistics == null ? -1L : statistics.getErrors();
+    }
+
+    @Override
+    public double getLatency(final String action, final double percentile) {
+        final Map<String, ActionStatistics> statistics = actionsManager.getStatistics();
+        if (!statistics.containsKey(action))
+            return -1D;
+        return statistics.get(action).getLatencies().getPercentile(percentile) / 1000000D;
+    }
+
+    @Override
+    public long getCacheHits() {
+        return actionsManager.getResultCache().getHits();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return actionsManager.getResultCache().getMisses();
+    }
+}
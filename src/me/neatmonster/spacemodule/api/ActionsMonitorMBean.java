@@ -0,0 +1,61 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+/**
+ * JMX view of the statistics of an ActionsManager
+ */
+public interface ActionsMonitorMBean {
+
+    /**
+     * Gets the names of the registered actions
+     * @return Action names
+     */
+    public String[] getActions();
+
+    /**
+     * Gets the number of calls to an action
+     * @param action Action name
+     * @return Number of calls, -1 if the action is not defined
+     */
+    public long getCalls(String action);
+
+    /**
+     * Gets the number of failed calls to an action
+     * @param action Action name
+     * @return Number of errors, -1 if the action is not defined
+     */
+    public long getErrors(String action);
+
+    /**
+     * Gets a latency percentile of an action
+     * @param action Action name
+     * @param percentile Percentile between 0 and 100
+     * @return Latency in milliseconds, -1 if the action is not defined
+     */
+    public double getLatency(String action, double percentile);
+
+    /**
+     * Gets the number of calls served from the result cache
+     * @return Number of cache hits
+     */
+    public long getCacheHits();
+
+    /**
+     * Gets the number of calls to cacheable actions that had to be executed
+     * @return Number of cache misses
+     */
+    public long getCacheMisses();
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.Map;
+
+/**
+ * Immutable case-insensitive index of the actions by alias.
+ * Lookups fold the case of the alias character by character while hashing and comparing it, so they
+ * never allocate a lowercase copy of the alias.
+ */
+public final class AliasIndex {
+    private final String[]        keys;
+    private final ActionInvoker[] invokers;
+    private final int             mask;
+    private final int             size;
+
+    /**
+     * Creates a new AliasIndex
+     * @param actions Actions by folded alias
+     */
+    AliasIndex(final Map<String, ActionInvoker> actions) {
+        int capacity = 2;
+        while (capacity < actions.size() * 2)
+            capacity <<= 1;
+        keys = new String[capacity];
+        invokers = new ActionInvoker[capacity];
+        mask = capacity - 1;
+        size = actions.size();
+        for (final Map.Entry<String, ActionInvoker> entry : actions.entrySet()) {
+            int slot = hash(entry.getKey()) & mask;
+            while (keys[slot] != null)
+                slot = slot + 1 & mask;
+            keys[slot] = entry.getKey();
+            invokers[slot] = entry.getValue();
+        }
+    }
+
+    /**
+     * Gets the action defined by an alias, ignoring case
+     * @param alias Action name
+     * @return Invoker of the action, null if the action is not defined
+     */
+    public ActionInvoker get(final String alias) {
+        final int length = alias.length();
+        String key;
+        for (int slot = hash(alias) & mask; (key = keys[slot]) != null; slot = slot + 1 & mask)
+            if (key.length() == length && key.regionMatches(true, 0, alias, 0, length))
+                return invokers[slot];
+        return null;
+    }
+
+    /**
+     * Gets the number of aliases in the index
+     * @return Number of aliases
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Folds the case of an alias the way lookups do
+     * @param alias Alias to fold
+     * @return The folded alias
+     */
+    static String fold(final String alias) {
+        final char[] folded = new char[alias.length()];
+        for (int c = 0; c < folded.length; c++)
+            folded[c] = fold(alias.charAt(c));
+        return new String(folded);
+    }
+
+    /**
+     * Folds the case of a character, matching String.regionMatches when ignoring case
+     * @param c Character to fold
+     * @return The folded character
+     */
+    private static char fold(final char c) {
+        if (c < 128)
+            return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Hashes an alias, ignoring case
+     * @param alias Alias to hash
+     * @return Hash of the folded alias
+     */
+    private static int hash(final String alias) {
+        int hash = 0;
+        for (int c = 0; c < alias.length(); c++)
+            hash = 31 * hash + fold(alias.charAt(c));
+        return hash ^ hash >>> 16;
+    }
+}
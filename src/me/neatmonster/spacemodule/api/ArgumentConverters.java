@@ -0,0 +1,186 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Built-in converters for the scalar parameter types Actions accept.
+ * Containers, arrays and enums are handled by the ConverterRegistry.
+ */
+public final class ArgumentConverters {
+    private static final Map<Class<?>, ArgumentConverter> converters = new HashMap<Class<?>, ArgumentConverter>();
+    private static final Map<Class<?>, Class<?>>          wrappers   = new HashMap<Class<?>, Class<?>>();
+
+    static {
+        wrappers.put(boolean.class, Boolean.class);
+        wrappers.put(byte.class, Byte.class);
+        wrappers.put(char.class, Character.class);
+        wrappers.put(short.class, Short.class);
+        wrappers.put(int.class, Integer.class);
+        wrappers.put(long.class, Long.class);
+        wrappers.put(float.class, Float.class);
+        wrappers.put(double.class, Double.class);
+
+        register(Object[].class, new ArgumentConverter() {
+            @Override
+            public Object convert(final Object value) {
+                return new Object[] {value};
+            }
+        });
+        register(String.class, new ArgumentConverter() {
+            @Override
+            public Object convert(final Object value) {
+                return value.toString();
+            }
+        });
+        register(Character.class, new ArgumentConverter() {
+            @Override
+            public Object convert(final Object value) {
+                final String string = value instanceof String ? (String) value : value.toString();
+                return string.length() == 0 ? null : string.charAt(0);
+            }
+        });
+        register(Boolean.class, new ArgumentConverter() {
+            @Override
+            public Object convert(final Object value) {
+                return Boolean.parseBoolean(value instanceof String ? (String) value : value.toString());
+            }
+        });
+        register(UUID.class, new ArgumentConverter() {
+            @Override
+            public Object convert(final Object value) {
+                try {
+                    return UUID.fromString(value instanceof String ? (String) value : value.toString());
+                } catch (final IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        });
+        register(Byte.class, new IntegralConverter(Byte.MIN_VALUE, Byte.MAX_VALUE) {
+            @Override
+            protected Object box(final long value) {
+                return (byte) value;
+            }
+        });
+        register(Short.class, new IntegralConverter(Short.MIN_VALUE, Short.MAX_VALUE) {
+            @Override
+            protected Object box(final long value) {
+                return (short) value;
+            }
+        });
+        register(Integer.class, new IntegralConverter(Integer.MIN_VALUE, Integer.MAX_VALUE) {
+            @Override
+            protected Object box(final long value) {
+                return (int) value;
+            }
+        });
+        register(Long.class, new IntegralConverter(Long.MIN_VALUE, Long.MAX_VALUE) {
+            @Override
+            protected Object box(final long value) {
+                return value;
+            }
+        });
+        register(Float.class, new FloatingConverter() {
+            @Override
+            protected Object box(final double value) {
+                return (float) value;
+            }
+        });
+        register(Double.class, new FloatingConverter() {
+            @Override
+            protected Object box(final double value) {
+                return value;
+            }
+        });
+    }
+
+    private ArgumentConverters() {}
+
+    private static void register(final Class<?> type, final ArgumentConverter converter) {
+        converters.put(type, converter);
+    }
+
+    /**
+     * Gets the class instances of a type are boxed to when passed as an argument
+     * @param type Parameter type
+     * @return Wrapper class of a primitive type, the type itself otherwise
+     */
+    public static Class<?> wrap(final Class<?> type) {
+        final Class<?> wrapper = wrappers.get(type);
+        return wrapper == null ? type : wrapper;
+    }
+
+    /**
+     * Gets the converter for a parameter type
+     * @param type Parameter type
+     * @return The converter, null if the type cannot be converted to
+     */
+    public static ArgumentConverter forType(final Class<?> type) {
+        return converters.get(wrap(type));
+    }
+
+    /**
+     * Converts integral numbers and their textual forms, rejecting values out of range
+     */
+    private static abstract class IntegralConverter implements ArgumentConverter {
+        private final long min;
+        private final long max;
+
+        IntegralConverter(final long min, final long max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public Object convert(final Object value) {
+            final long number;
+            try {
+                if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+                    number = ((Number) value).longValue();
+                else
+                    number = Long.parseLong(value instanceof String ? (String) value : value.toString());
+            } catch (final NumberFormatException e) {
+                return null;
+            }
+            if (number < min || number > max)
+                return null;
+            return box(number);
+        }
+
+        protected abstract Object box(long value);
+    }
+
+    /**
+     * Converts numbers and their textual forms to floating point
+     */
+    private static abstract class FloatingConverter implements ArgumentConverter {
+
+        @Override
+        public Object convert(final Object value) {
+            try {
+                if (value instanceof Number)
+                    return box(((Number) value).doubleValue());
+                return box(Double.parseDouble(value instanceof String ? (String) value : value.toString()));
+            } catch (final NumberFormatException e) {
+                return null;
+            }
+        }
+
+        protected abstract Object box(double value);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actions every ActionsManager provides about itself
+ */
+public class BuiltinActions implements ActionHandler {
+    private final ActionsManager actionsManager;
+
+    /**
+     * Creates new BuiltinActions
+     * @param actionsManager Manager the actions report on
+     */
+    public BuiltinActions(final ActionsManager actionsManager) {
+        this.actionsManager = actionsManager;
+    }
+
+    /**
+     * Gets the statistics of every action
+     * @return Calls, errors and latency percentiles by action name
+     */
+    @Action(aliases = {"getActionStatistics", "actionStatistics"}, schedulable = false)
+    public Map<String, Map<String, Object>> getActionStatistics() {
+        final Map<String, Map<String, Object>> statistics = new LinkedHashMap<String, Map<String, Object>>();
+        for (final Map.Entry<String, ActionStatistics> entry : actionsManager.getStatistics().entrySet())
+            statistics.put(entry.getKey(), entry.getValue().toMap());
+        return statistics;
+    }
+
+    /**
+     * Gets the traces of the recently sampled calls
+     * @return Traces, from the oldest to the most recent
+     */
+    @Action(aliases = {"getCallTraces", "callTraces"}, schedulable = false)
+    public List<Map<String, Object>> getCallTraces() {
+        final List<CallTrace> traces = actionsManager.getTracer().getTraces();
+        final List<Map<String, Object>> maps = new ArrayList<Map<String, Object>>(traces.size());
+        for (final CallTrace trace : traces)
+            maps.add(trace.toMap());
+        return maps;
+    }
+
+    /**
+     * Sets the rate calls are sampled at
+     * @param sampleRate One call out of this many is traced, 0 to turn sampling off
+     * @return The previous sample rate
+     */
+    @Action(aliases = {"setCallSampleRate", "callSampleRate"}, schedulable = false)
+    public int setCallSampleRate(final int sampleRate) {
+        final int previous = actionsManager.getTracer().getSampleRate();
+        actionsManager.getTracer().setSampleRate(sampleRate);
+        return previous;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of calls to an Action running at once, queueing a bounded number of further calls and
+ * rejecting the rest
+ */
+public class Bulkhead {
+    private final int           maxConcurrency;
+    private final int           queueDepth;
+    private final Semaphore     permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * Creates a new Bulkhead
+     * @param maxConcurrency Maximum number of calls running at once
+     * @param queueDepth Maximum number of calls waiting for one of them to complete
+     */
+    public Bulkhead(final int maxConcurrency, final int queueDepth) {
+        this.maxConcurrency = maxConcurrency;
+        this.queueDepth = queueDepth;
+        permits = new Semaphore(maxConcurrency, true);
+    }
+
+    /**
+     * Enters the bulkhead, waiting for a running call to complete if needed
+     * @param name Name of the action, for the error message
+     * @throws ActionRejectedException If the queue is full or the thread is interrupted while waiting
+     */
+    public void acquire(final String name) throws ActionRejectedException {
+        if (permits.tryAcquire())
+            return;
+        if (waiting.incrementAndGet() > queueDepth) {
+            waiting.decrementAndGet();
+            throw new ActionRejectedException(false, maxConcurrency, " calls to ", name, " are already running and ",
+                    queueDepth, " waiting, try again later.");
+        }
+        try {
+            permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ActionRejectedException("Interrupted while waiting to call " + name + ".");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Leaves the bulkhead, letting a waiting call run
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Gets the number of calls running
+     * @return Number of running calls
+     */
+    public int getRunning() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Gets the number of calls waiting
+     * @return Number of waiting calls
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.Arrays;
+
+/**
+ * Identifies a call to an Action by the action and its coerced arguments
+ */
+class CallKey {
+    private final ActionInvoker invoker;
+    private final Object[]      arguments;
+    private final int           hash;
+
+    /**
+     * Creates a new CallKey
+     * @param invoker Invoker of the action
+     * @param arguments Coerced arguments, not copied
+     */
+    CallKey(final ActionInvoker invoker, final Object[] arguments) {
+        this.invoker = invoker;
+        this.arguments = arguments;
+        hash = 31 * invoker.hashCode() + Arrays.deepHashCode(arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object)
+            return true;
+        if (!(object instanceof CallKey))
+            return false;
+        final CallKey key = (CallKey) object;
+        return hash == key.hash && invoker == key.invoker && Arrays.deepEquals(arguments, key.arguments);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sampled record of a call to an Action
+ */
+public class CallTrace {
+    private final long   time;
+    private final String alias;
+    private final String arguments;
+    private final long   queueNanos;
+    private final long   executionNanos;
+    private final String outcome;
+    private final String thread;
+
+    /**
+     * Creates a new CallTrace
+     * @param time Time the call started, in milliseconds since the epoch
+     * @param alias Action name
+     * @param arguments Summary of the arguments
+     * @param queueNanos Time the call waited for an executor thread, in nanoseconds
+     * @param executionNanos Time the call took, in nanoseconds
+     * @param outcome Outcome of the call
+     * @param thread Name of the thread the call ran on
+     */
+    public CallTrace(final long time, final String alias, final String arguments, final long queueNanos,
+            final long executionNanos, final String outcome, final String thread) {
+        this.time = time;
+        this.alias = alias;
+        this.arguments = arguments;
+        this.queueNanos = queueNanos;
+        this.executionNanos = executionNanos;
+        this.outcome = outcome;
+        this.thread = thread;
+    }
+
+    /**
+     * Gets the time the call started
+     * @return Time in milliseconds since the epoch
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the name of the action
+     * @return Action name
+     */
+    public String getAlias() {
+        return alias;
+    }
+
+    /**
+     * Gets the summary of the arguments
+     * @return Arguments, truncated
+     */
+    public String getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Gets the time the call waited for an executor thread
+     * @return Queue time in nanoseconds, 0 if the call was synchronous
+     */
+    public long getQueueNanos() {
+        return queueNanos;
+    }
+
+    /**
+     * Gets the time the call took
+     * @return Execution time in nanoseconds
+     */
+    public long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    /**
+     * Gets the outcome of the call
+     * @return "completed", "invalid", "rejected", "failed" if the action threw an exception, or "error"
+     */
+    public String getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Gets the name of the thread the call ran on
+     * @return Thread name
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * Gets the trace in a form that can be sent to the Panel
+     * @return Trace with the times in milliseconds
+     */
+    public Map<String, Object> toMap() {
+        final Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("time", time);
+        map.put("alias", alias);
+        map.put("arguments", arguments);
+        map.put("queue", queueNanos / 1000000D);
+        map.put("execution", executionNanos / 1000000D);
+        map.put("outcome", outcome);
+        map.put("thread", thread);
+        return map;
+    }
+}
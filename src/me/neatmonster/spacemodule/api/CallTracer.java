@@ -0,0 +1,125 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records a sample of the calls to the Actions into a fixed-size ring buffer.
+ * Recording never locks: the writers claim a slot with an atomic counter and overwrite the oldest
+ * trace. With sampling off, a call only costs a volatile read.
+ */
+public class CallTracer {
+    private static final int                      MAX_ARGUMENT_LENGTH = 64;
+    private static final int                      MAX_SUMMARY_LENGTH  = 256;
+
+    private final AtomicReferenceArray<CallTrace> traces;
+    private final int                             mask;
+    private final AtomicLong                      sequence = new AtomicLong();
+    private final AtomicLong                      calls    = new AtomicLong();
+    private volatile int                          sampleRate;
+
+    /**
+     * Creates a new CallTracer, with sampling off
+     * @param capacity Number of traces kept, rounded up to a power of two
+     */
+    public CallTracer(final int capacity) {
+        int size = 1;
+        while (size < capacity)
+            size <<= 1;
+        traces = new AtomicReferenceArray<CallTrace>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Gets the sample rate
+     * @return One call out of this many is traced, 0 if sampling is off
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Sets the sample rate
+     * @param sampleRate One call out of this many is traced, 0 to turn sampling off
+     */
+    public void setSampleRate(final int sampleRate) {
+        this.sampleRate = Math.max(0, sampleRate);
+    }
+
+    /**
+     * Decides if a call is traced
+     * @return If the call has to be recorded
+     */
+    boolean sample() {
+        final int rate = sampleRate;
+        if (rate == 0)
+            return false;
+        return rate == 1 || calls.getAndIncrement() % rate == 0;
+    }
+
+    /**
+     * Records a traced call
+     * @param trace Trace of the call
+     */
+    void record(final CallTrace trace) {
+        traces.set((int) (sequence.getAndIncrement() & mask), trace);
+    }
+
+    /**
+     * Gets the traces in the buffer
+     * @return Traces, from the oldest to the most recent
+     */
+    public List<CallTrace> getTraces() {
+        final long end = sequence.get();
+        final long start = Math.max(0L, end - traces.length());
+        final List<CallTrace> snapshot = new ArrayList<CallTrace>((int) (end - start));
+        for (long s = start; s < end; s++) {
+            final CallTrace trace = traces.get((int) (s & mask));
+            if (trace != null)
+                snapshot.add(trace);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Summarizes the arguments of a call, truncating the long ones
+     * @param arguments Arguments of the call
+     * @return The summary
+     */
+    static String summarize(final Object[] arguments) {
+        final StringBuilder summary = new StringBuilder();
+        for (int a = 0; a < arguments.length && summary.length() < MAX_SUMMARY_LENGTH; a++) {
+            if (a > 0)
+                summary.append(", ");
+            final Object argument = arguments[a];
+            final String string = argument instanceof Object[] ? Arrays.deepToString((Object[]) argument)
+                    : String.valueOf(argument);
+            if (string.length() > MAX_ARGUMENT_LENGTH)
+                summary.append(string, 0, MAX_ARGUMENT_LENGTH).append("...");
+            else
+                summary.append(string);
+        }
+        if (summary.length() > MAX_SUMMARY_LENGTH) {
+            summary.setLength(MAX_SUMMARY_LENGTH);
+            summary.append("...");
+        }
+        return summary.toString();
+    }
+}
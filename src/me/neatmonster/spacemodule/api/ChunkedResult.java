@@ -0,0 +1,102 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Result of an Action delivered in bounded chunks.
+ * Chunks are pulled by the caller, so an action returning a lazy Iterator or Iterable only produces
+ * the elements of the chunk being read, and never more than one chunk is held at once.
+ */
+public class ChunkedResult implements Iterator<List<Object>>, Closeable {
+    private final Iterator<?> elements;
+    private final int         chunkSize;
+
+    /**
+     * Creates a new ChunkedResult
+     * @param result Result of the action: an Iterator, an Iterable, an array or a single value
+     * @param chunkSize Maximum number of elements per chunk
+     */
+    public ChunkedResult(final Object result, final int chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        this.chunkSize = chunkSize;
+        if (result instanceof Iterator)
+            elements = (Iterator<?>) result;
+        else if (result instanceof Iterable)
+            elements = ((Iterable<?>) result).iterator();
+        else if (result instanceof Object[])
+            elements = Arrays.asList((Object[]) result).iterator();
+        else
+            elements = Collections.singletonList(result).iterator();
+    }
+
+    /**
+     * Gets the maximum number of elements per chunk
+     * @return Chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Checks if elements are left
+     * @return If another chunk can be read
+     */
+    @Override
+    public boolean hasNext() {
+        return elements.hasNext();
+    }
+
+    /**
+     * Reads the next chunk, producing it's elements
+     * @return Up to chunkSize elements
+     */
+    @Override
+    public List<Object> next() {
+        if (!elements.hasNext())
+            throw new NoSuchElementException();
+        final List<Object> chunk = new ArrayList<Object>(chunkSize);
+        while (chunk.size() < chunkSize && elements.hasNext())
+            chunk.add(elements.next());
+        return chunk;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Stops reading the result, releasing the resources of the action's iterator if it holds some
+     */
+    @Override
+    public void close() {
+        if (elements instanceof Closeable)
+            try {
+                ((Closeable) elements).close();
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.lang.reflect.Type;
+
+/**
+ * Creates converters for a family of parameter types, such as all the enums or all the lists
+ */
+public interface ConverterFactory {
+
+    /**
+     * Creates a converter for a parameter type
+     * @param type Generic parameter type
+     * @param registry Registry to resolve converters of nested types with
+     * @return The converter, null if the factory doesn't handle the type
+     */
+    public ArgumentConverter create(Type type, ConverterRegistry registry);
+}
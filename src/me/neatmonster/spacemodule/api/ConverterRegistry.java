@@ -0,0 +1,305 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of the converters used to coerce arguments to the parameter types of the Actions.
+ * Converters are resolved once per parameter when an Action is registered, so custom converters
+ * have to be registered before the classes using them.
+ */
+public class ConverterRegistry {
+    private final ConcurrentMap<Class<?>, ArgumentConverter> converters = new ConcurrentHashMap<Class<?>, ArgumentConverter>();
+    private final List<ConverterFactory>                     factories  = new CopyOnWriteArrayList<ConverterFactory>();
+
+    /**
+     * Creates a new ConverterRegistry with the built-in converters
+     */
+    public ConverterRegistry() {
+        factories.add(new EnumConverterFactory());
+        factories.add(new ArrayConverterFactory());
+        factories.add(new CollectionConverterFactory());
+        factories.add(new MapConverterFactory());
+    }
+
+    /**
+     * Registeres a converter for a class, replacing the previous one
+     * @param type Class to convert to
+     * @param converter Converter to use
+     */
+    public void register(final Class<?> type, final ArgumentConverter converter) {
+        converters.put(ArgumentConverters.wrap(type), converter);
+    }
+
+    /**
+     * Registeres a factory of converters, consulted before the ones registered earlier
+     * @param factory Factory to register
+     */
+    public void register(final ConverterFactory factory) {
+        factories.add(0, factory);
+    }
+
+    /**
+     * Gets the converter for a parameter type
+     * @param type Generic parameter type
+     * @return The converter, null if the type cannot be converted to
+     */
+    public ArgumentConverter get(final Type type) {
+        final Class<?> raw = raw(type);
+        if (type instanceof Class) {
+            final ArgumentConverter converter = converters.get(ArgumentConverters.wrap(raw));
+            if (converter != null)
+                return converter;
+        }
+        for (final ConverterFactory factory : factories) {
+            final ArgumentConverter converter = factory.create(type, this);
+            if (converter != null)
+                return converter;
+        }
+        return ArgumentConverters.forType(raw);
+    }
+
+    /**
+     * Gets the class of a generic type
+     * @param type Generic type
+     * @return Class of the type, Object if it is a type variable or a wildcard
+     */
+    public static Class<?> raw(final Type type) {
+        if (type instanceof Class)
+            return (Class<?>) type;
+        if (type instanceof ParameterizedType)
+            return raw(((ParameterizedType) type).getRawType());
+        if (type instanceof GenericArrayType)
+            return Array.newInstance(raw(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        return Object.class;
+    }
+
+    /**
+     * Gets a type argument of a generic type
+     * @param type Generic type
+     * @param index Index of the type argument
+     * @return The type argument, Object if the type is raw
+     */
+    private static Type argument(final Type type, final int index) {
+        if (type instanceof ParameterizedType)
+            return ((ParameterizedType) type).getActualTypeArguments()[index];
+        return Object.class;
+    }
+
+    /**
+     * Converts a value to an element type
+     * @param element Converter of the element type, null if any value is accepted
+     * @param accepted Class the elements have to be instances of
+     * @param value Value to convert
+     * @return The converted value, null if it couldn't be converted
+     */
+    private static Object element(final ArgumentConverter element, final Class<?> accepted, final Object value) {
+        if (value == null || element == null || accepted.isInstance(value))
+            return value;
+        return element.convert(value);
+    }
+
+    /**
+     * Gets the values of a collection or an array, a single value being its own only element
+     * @param value Value to get the elements of
+     * @return The elements
+     */
+    private static Collection<?> elements(final Object value) {
+        if (value instanceof Collection)
+            return (Collection<?>) value;
+        if (value instanceof Object[])
+            return Arrays.asList((Object[]) value);
+        if (value.getClass().isArray()) {
+            final int length = Array.getLength(value);
+            final List<Object> elements = new ArrayList<Object>(length);
+            for (int e = 0; e < length; e++)
+                elements.add(Array.get(value, e));
+            return elements;
+        }
+        return Arrays.asList(value);
+    }
+
+    /**
+     * Converts names, ignoring case, and ordinals to the constants of an enum
+     */
+    private static class EnumConverterFactory implements ConverterFactory {
+
+        @Override
+        public ArgumentConverter create(final Type type, final ConverterRegistry registry) {
+            if (!(type instanceof Class) || !((Class<?>) type).isEnum())
+                return null;
+            final Object[] constants = ((Class<?>) type).getEnumConstants();
+            return new ArgumentConverter() {
+                @Override
+                public Object convert(final Object value) {
+                    if (value instanceof Number) {
+                        final long ordinal = ((Number) value).longValue();
+                        return ordinal >= 0 && ordinal < constants.length ? constants[(int) ordinal] : null;
+                    }
+                    final String name = value.toString();
+                    for (final Object constant : constants)
+                        if (((Enum<?>) constant).name().equalsIgnoreCase(name))
+                            return constant;
+                    return null;
+                }
+            };
+        }
+    }
+
+    /**
+     * Converts collections and arrays to arrays, including arrays of primitives
+     */
+    private static class ArrayConverterFactory implements ConverterFactory {
+
+        @Override
+        public ArgumentConverter create(final Type type, final ConverterRegistry registry) {
+            final Class<?> raw = raw(type);
+            if (!raw.isArray() || raw == Object[].class)
+                return null;
+            final Class<?> component = raw.getComponentType();
+            final Class<?> accepted = ArgumentConverters.wrap(component);
+            final ArgumentConverter element = registry.get(type instanceof GenericArrayType
+                    ? ((GenericArrayType) type).getGenericComponentType() : component);
+            if (element == null && component != Object.class)
+                return null;
+            return new ArgumentConverter() {
+                @Override
+                public Object convert(final Object value) {
+                    final Collection<?> elements = elements(value);
+                    final Object array = Array.newInstance(component, elements.size());
+                    int index = 0;
+                    for (final Object value_ : elements) {
+                        final Object converted = element(element, accepted, value_);
+                        if (converted == null && (value_ != null || component.isPrimitive()))
+                            return null;
+                        Array.set(array, index++, converted);
+                    }
+                    return array;
+                }
+            };
+        }
+    }
+
+    /**
+     * Converts collections, arrays and single values to lists and sets of converted elements
+     */
+    private static class CollectionConverterFactory implements ConverterFactory {
+
+        @Override
+        public ArgumentConverter create(final Type type, final ConverterRegistry registry) {
+            final Class<?> raw = raw(type);
+            final boolean set;
+            if (raw == List.class || raw == Collection.class || raw == ArrayList.class || raw == Iterable.class)
+                set = false;
+            else if (raw == Set.class || raw == LinkedHashSet.class)
+                set = true;
+            else
+                return null;
+            final Type elementType = argument(type, 0);
+            final Class<?> accepted = ArgumentConverters.wrap(raw(elementType));
+            final ArgumentConverter element = accepted == Object.class ? null : registry.get(elementType);
+            if (element == null && accepted != Object.class)
+                return null;
+            return new ArgumentConverter() {
+                @Override
+                public Object convert(final Object value) {
+                    final Collection<?> elements = elements(value);
+                    if (raw.isInstance(value) && matches(elements))
+                        return value;
+                    final Collection<Object> converted = set ? new LinkedHashSet<Object>(elements.size())
+                            : new ArrayList<Object>(elements.size());
+                    for (final Object value_ : elements) {
+                        final Object converted_ = element(element, accepted, value_);
+                        if (converted_ == null && value_ != null)
+                            return null;
+                        converted.add(converted_);
+                    }
+                    return converted;
+                }
+
+                private boolean matches(final Collection<?> elements) {
+                    if (element != null)
+                        for (final Object value_ : elements)
+                            if (value_ != null && !accepted.isInstance(value_))
+                                return false;
+                    return true;
+                }
+            };
+        }
+    }
+
+    /**
+     * Converts maps to maps of converted keys and values
+     */
+    private static class MapConverterFactory implements ConverterFactory {
+
+        @Override
+        public ArgumentConverter create(final Type type, final ConverterRegistry registry) {
+            final Class<?> raw = raw(type);
+            if (raw != Map.class && raw != LinkedHashMap.class)
+                return null;
+            final Class<?> acceptedKey = ArgumentConverters.wrap(raw(argument(type, 0)));
+            final Class<?> acceptedValue = ArgumentConverters.wrap(raw(argument(type, 1)));
+            final ArgumentConverter key = acceptedKey == Object.class ? null : registry.get(argument(type, 0));
+            final ArgumentConverter value = acceptedValue == Object.class ? null : registry.get(argument(type, 1));
+            if (key == null && acceptedKey != Object.class || value == null && acceptedValue != Object.class)
+                return null;
+            return new ArgumentConverter() {
+                @Override
+                public Object convert(final Object map) {
+                    if (!(map instanceof Map))
+                        return null;
+                    final Map<?, ?> entries = (Map<?, ?>) map;
+                    if (raw.isInstance(map) && matches(entries))
+                        return map;
+                    final Map<Object, Object> converted = new LinkedHashMap<Object, Object>(entries.size() * 4 / 3 + 1);
+                    for (final Map.Entry<?, ?> entry : entries.entrySet()) {
+                        final Object key_ = element(key, acceptedKey, entry.getKey());
+                        final Object value_ = element(value, acceptedValue, entry.getValue());
+                        if (key_ == null && entry.getKey() != null || value_ == null && entry.getValue() != null)
+                            return null;
+                        converted.put(key_, value_);
+                    }
+                    return converted;
+                }
+
+                private boolean matches(final Map<?, ?> entries) {
+                    if (key == null && value == null)
+                        return true;
+                    for (final Map.Entry<?, ?> entry : entries.entrySet())
+                        if (entry.getKey() != null && !acceptedKey.isInstance(entry.getKey()) || entry.getValue() != null
+                                && !acceptedValue.isInstance(entry.getValue()))
+                            return false;
+                    return true;
+                }
+            };
+        }
+    }
+}
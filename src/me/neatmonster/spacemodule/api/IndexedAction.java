@@ -0,0 +1,58 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+/**
+ * An entry of an ActionIndex: the signature of an action and a direct call to it
+ */
+public abstract class IndexedAction {
+    private final String     name;
+    private final Class<?>[] parameterTypes;
+
+    /**
+     * Creates a new IndexedAction
+     * @param name Name of the method
+     * @param parameterTypes Parameter types of the method
+     */
+    protected IndexedAction(final String name, final Class<?>... parameterTypes) {
+        this.name = name;
+        this.parameterTypes = parameterTypes;
+    }
+
+    /**
+     * Gets the name of the method
+     * @return Method name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the parameter types of the method
+     * @return Parameter types
+     */
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes.clone();
+    }
+
+    /**
+     * Calls the method
+     * @param handler Handler to call the method on
+     * @param arguments Arguments, already coerced to the parameter types
+     * @return The result of the method, null if it returns nothing
+     * @throws Throwable Anything the method throws
+     */
+    public abstract Object invoke(Object handler, Object[] arguments) throws Throwable;
+}
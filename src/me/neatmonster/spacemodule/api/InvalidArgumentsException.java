@@ -27,4 +27,13 @@ public class InvalidArgumentsException extends ActionException {
     public InvalidArgumentsException(final String message) {
         super(message);
     }
+
+    /**
+     * Creates a new InvalidArgumentsException with an error message built when it is first read
+     * @param stackTrace If the stack trace is filled in
+     * @param message Parts of the error message, concatenated
+     */
+    public InvalidArgumentsException(final boolean stackTrace, final Object... message) {
+        super(stackTrace, message);
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies.
+ * Buckets are powers of two split in eight, so recorded values are kept within 12.5% of their actual value.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS  = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT     = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Records a latency
+     * @param nanos Latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        counts.incrementAndGet(indexOf(Math.max(0L, nanos)));
+    }
+
+    /**
+     * Gets a percentile of the recorded latencies
+     * @param percentile Percentile between 0 and 100
+     * @return Latency in nanoseconds under which the given percentage of calls completed, 0 if nothing was
+     *         recorded
+     */
+    public long getPercentile(final double percentile) {
+        final long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            total += snapshot[i] = counts.get(i);
+        if (total == 0L)
+            return 0L;
+        final long target = Math.max(1L, (long) Math.ceil(percentile / 100D * total));
+        long count = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += snapshot[i];
+            if (count >= target)
+                return upperBoundOf(i);
+        }
+        return upperBoundOf(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Gets the number of recorded latencies
+     * @return Number of latencies
+     */
+    public long getCount() {
+        long total = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            total += counts.get(i);
+        return total;
+    }
+
+    private static int indexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT)
+            return (int) value;
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift & SUB_BUCKET_COUNT - 1);
+    }
+
+    private static long upperBoundOf(final int index) {
+        if (index < SUB_BUCKET_COUNT)
+            return index;
+        final int shift = index / SUB_BUCKET_COUNT - 1;
+        final long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1L;
+    }
+}
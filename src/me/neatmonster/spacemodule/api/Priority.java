@@ -0,0 +1,48 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+/**
+ * Priority class of an Action, deciding the lane it's asynchronous calls wait in
+ */
+public enum Priority {
+    /**
+     * Calls triggered by a user of the Panel, waiting for the result
+     */
+    INTERACTIVE(8),
+    /**
+     * Calls without any particular urgency
+     */
+    NORMAL(4),
+    /**
+     * Long or numerous calls, such as backups, mass edits and scheduled actions, which may only use
+     * half of the threads
+     */
+    BULK(1);
+
+    private final int weight;
+
+    private Priority(final int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Gets the share of the threads the lane gets when several lanes have calls waiting
+     * @return Weight of the lane
+     */
+    public int getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Keeps one queue per Priority in front of an executor and hands the calls to it by smooth weighted
+ * round robin, never running more than a fixed number of calls at once. Bulk calls never take more than
+ * half of the slots, and the last free slot is kept for interactive calls, so they find one even while
+ * other lanes are busy.
+ */
+public class PriorityLanes {
+    private static final Priority[]          priorities = Priority.values();
+
+    private final Executor                   executor;
+    private final int                        concurrency;
+    private final int                        capacity;
+    private final List<ArrayDeque<Runnable>> lanes      = new ArrayList<ArrayDeque<Runnable>>(priorities.length);
+    private final int[]                      running    = new int[priorities.length];
+    private final int[]                      credits    = new int[priorities.length];
+    private int                              total;
+
+    /**
+     * Creates new PriorityLanes
+     * @param executor Executor running the calls
+     * @param concurrency Maximum number of calls running at once
+     * @param capacity Maximum number of calls waiting in each lane, further ones are rejected
+     */
+    public PriorityLanes(final Executor executor, final int concurrency, final int capacity) {
+        this.executor = executor;
+        this.concurrency = Math.max(1, concurrency);
+        this.capacity = capacity;
+        for (int p = 0; p < priorities.length; p++)
+            lanes.add(new ArrayDeque<Runnable>());
+    }
+
+    /**
+     * Queues a call in the lane of it's priority
+     * @param priority Priority of the call
+     * @param task Call to run
+     * @throws RejectedExecutionException If the lane is full, or the executor rejected the call
+     */
+    public synchronized void execute(final Priority priority, final Runnable task) {
+        final ArrayDeque<Runnable> lane = lanes.get(priority.ordinal());
+        if (lane.size() >= capacity)
+            throw new RejectedExecutionException("The " + priority + " lane is full.");
+        lane.add(task);
+        try {
+            drain();
+        } catch (final RejectedExecutionException e) {
+            lane.remove(task);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the calls still waiting in the lanes
+     * @return The removed calls
+     */
+    public synchronized List<Runnable> clear() {
+        final List<Runnable> pending = new ArrayList<Runnable>();
+        for (final ArrayDeque<Runnable> lane : lanes) {
+            pending.addAll(lane);
+            lane.clear();
+        }
+        return pending;
+    }
+
+    /**
+     * Gets the number of calls waiting in a lane
+     * @param priority Priority of the lane
+     * @return Number of waiting calls
+     */
+    public synchronized int getWaiting(final Priority priority) {
+        return lanes.get(priority.ordinal()).size();
+    }
+
+    /**
+     * Hands waiting calls to the executor while slots are free
+     */
+    private void drain() {
+        while (total < concurrency) {
+            final int lane = pick();
+            if (lane < 0)
+                return;
+            final Runnable task = lanes.get(lane).poll();
+            running[lane]++;
+            total++;
+            try {
+                executor.execute(new Slot(lane, task));
+            } catch (final RejectedExecutionException e) {
+                running[lane]--;
+                total--;
+                lanes.get(lane).addFirst(task);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Picks the lane to take the next call from, by smooth weighted round robin over the lanes having
+     * calls waiting and a slot left
+     * @return Index of the lane, -1 if none can run a call
+     */
+    private int pick() {
+        int best = -1;
+        int weights = 0;
+        for (int p = 0; p < priorities.length; p++) {
+            if (lanes.get(p).isEmpty() || priorities[p] == Priority.BULK && running[p] >= Math.max(1, concurrency / 2))
+                continue;
+            if (priorities[p] != Priority.INTERACTIVE && concurrency > 1 && total >= concurrency - 1)
+                continue;
+            credits[p] += priorities[p].getWeight();
+            weights += priorities[p].getWeight();
+            if (best < 0 || credits[p] > credits[best])
+                best = p;
+        }
+        if (best >= 0)
+            credits[best] -= weights;
+        return best;
+    }
+
+    private synchronized void release(final int lane) {
+        running[lane]--;
+        total--;
+        try {
+            drain();
+        } catch (final RejectedExecutionException e) {
+            // The executor is shutting down, the waiting calls are cleared with it
+        }
+    }
+
+    /**
+     * Runs a call in a slot of a lane, freeing the slot once done
+     */
+    private class Slot implements Runnable {
+        private final int      lane;
+        private final Runnable task;
+
+        Slot(final int lane, final Runnable task) {
+            this.lane = lane;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } finally {
+                release(lane);
+            }
+        }
+    }
+}
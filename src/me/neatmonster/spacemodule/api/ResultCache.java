@@ -0,0 +1,122 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the results of cacheable Actions, evicting the least recently used entries first
+ */
+public class ResultCache {
+    private final Map<CallKey, CachedResult> entries;
+    private final AtomicLong          hits   = new AtomicLong();
+    private final AtomicLong          misses = new AtomicLong();
+
+    /**
+     * Creates a new ResultCache
+     * @param capacity Maximum number of results kept
+     */
+    public ResultCache(final int capacity) {
+        entries = new LinkedHashMap<CallKey, CachedResult>(16, 0.75F, true) {
+            private static final long serialVersionUID = -3920373412530287151L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<CallKey, CachedResult> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached result
+     * @param key Call to get the result of
+     * @return The result, null if it isn't cached or has expired
+     */
+    Object get(final CallKey key) {
+        final long now = System.nanoTime();
+        synchronized (entries) {
+            final CachedResult entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.expiry < 0L) {
+                    hits.incrementAndGet();
+                    return entry.result;
+                }
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches a result
+     * @param key Call to cache the result of
+     * @param result Result of the call
+     * @param ttl Time to keep the result for, in milliseconds
+     */
+    void put(final CallKey key, final Object result, final long ttl) {
+        final CachedResult entry = new CachedResult(result, System.nanoTime() + ttl * 1000000L);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Removes all the cached results
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Gets the number of results currently cached, including expired ones not evicted yet
+     * @return Number of results
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Gets the number of calls served from the cache
+     * @return Number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of calls to cacheable actions that had to be executed
+     * @return Number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static class CachedResult {
+        private final Object result;
+        private final long   expiry;
+
+        CachedResult(final Object result, final long expiry) {
+            this.result = result;
+            this.expiry = expiry;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.api;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Asynchronous call to an Action, cancelling it's timeout once it is done so the timer doesn't keep it
+ * and it's result reachable until the timeout elapses
+ */
+class TimedTask extends FutureTask<Object> {
+    private volatile Future<?> timeout;
+
+    /**
+     * Creates a new TimedTask
+     * @param callable Call to the action
+     */
+    TimedTask(final Callable<Object> callable) {
+        super(callable);
+    }
+
+    /**
+     * Sets the timeout of the call, cancelling it right away if the call is already done
+     * @param timeout Timeout scheduled on the timer
+     */
+    void setTimeout(final Future<?> timeout) {
+        this.timeout = timeout;
+        if (isDone())
+            timeout.cancel(false);
+    }
+
+    @Override
+    protected void done() {
+        final Future<?> timeout = this.timeout;
+        if (timeout != null)
+            timeout.cancel(false);
+    }
+}
@@ -27,4 +27,12 @@ public class UnhandledActionException extends ActionException {
         
     }
 
+    /**
+     * Creates a new UnhandledActionException with an error message built when it is first read
+     * @param stackTrace If the stack trace is filled in
+     * @param message Parts of the error message, concatenated
+     */
+    public UnhandledActionException(final boolean stackTrace, final Object... message) {
+        super(stackTrace, message);
+    }
 }
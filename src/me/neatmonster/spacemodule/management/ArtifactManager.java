@@ -1,19 +1,38 @@
 package me.neatmonster.spacemodule.management;
 
-import com.drdanick.rtoolkit.util.config.ConfigurationFile;
-import com.drdanick.rtoolkit.util.config.Node;
 import me.neatmonster.spacemodule.SpaceModule;
 import me.neatmonster.spacemodule.utilities.Console;
+import me.neatmonster.spacemodule.utilities.HttpCache;
 import me.neatmonster.spacemodule.utilities.Utilities;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.xml.stream.XMLStreamException;
 
 /**
  * Manages dependency artifacts.
  */
 public class ArtifactManager {
+    private static final int       FINGERPRINT_THREADS = 8;
+    private static final int       RECOMMENDED_LEVEL   = 4;
+    private static final HttpCache httpCache           = new HttpCache(SpaceModule.HTTP_CACHE, 4L * 1024L * 1024L);
 
     private String name;
     private String version;
@@ -21,11 +40,11 @@ public class ArtifactManager {
     private int recommendedBuild = -1;
     private int developmentBuild = -1;
     private String buildAPIString;
-    private String recommendedAPIString;
     private String artifactName;
     private boolean recommended;
 
     private final LinkedHashMap<Integer, String> builds = new LinkedHashMap<Integer, String>();
+    private final ConcurrentHashMap<String, Integer> buildsByMD5 = new ConcurrentHashMap<String, Integer>();
 
 
     public ArtifactManager(String name, String version, String jenkinsURLBase, boolean recommended) {
@@ -34,7 +53,11 @@ public class ArtifactManager {
         this.recommended = recommended;
         this.jenkinsURLBase = jenkinsURLBase;
         buildAPIString = "/api/xml?tree=jobs[builds[number,artifacts[fileName],actions[levelValue]]]&wrapper=jenkins&xpath=//job/build[starts-with(artifact/fileName/text(),'"+name.toLowerCase()+"-"+version+"')]&exclude=//job/build/action[not(node())]|//job/build[not(artifact)]";
-        recommendedAPIString = buildAPIString + "|//job/build[not(action/levelValue=4)]";
+
+        //Builds can be matched before the first check, from the fingerprints known from the last run
+        YamlConfiguration database = YamlConfiguration.loadConfiguration(SpaceModule.DATABASE);
+        if(isCacheValid(database))
+            loadBuilds(database);
     }
 
     /**
@@ -43,83 +66,224 @@ public class ArtifactManager {
      * @return Build number, -1 if none
      */
     public int match(final String md5) {
-        if (builds.containsValue(md5))
-            for (final int buildNumber : builds.keySet()) {
-                final String bMD5 = builds.get(buildNumber);
-                if (bMD5 != null && bMD5.equalsIgnoreCase(md5))
-                    return buildNumber;
-            }
-        return -1;
+        if (md5 == null)
+            return -1;
+        final Integer buildNumber = buildsByMD5.get(normalize(md5));
+        return buildNumber == null ? -1 : buildNumber;
+    }
+
+    /**
+     * Normalizes an MD5 to lower case, without copying it if it already is
+     * @param md5 MD5 to normalize
+     * @return The normalized MD5
+     */
+    private static String normalize(final String md5) {
+        for (int c = 0; c < md5.length(); c++)
+            if (Character.isUpperCase(md5.charAt(c)))
+                return md5.toLowerCase(Locale.ENGLISH);
+        return md5;
+    }
+
+    /**
+     * Adds a build, keeping the reverse MD5 index in sync. If several builds have the same MD5, it
+     * matches the most recent one.
+     * @param number Build number
+     * @param md5 MD5 of the artifact of the build
+     */
+    private void putBuild(final int number, final String md5) {
+        final String normalized = normalize(md5);
+        builds.put(number, normalized);
+        final Integer existing = buildsByMD5.get(normalized);
+        if (existing == null || existing < number)
+            buildsByMD5.put(normalized, number);
+    }
+
+    /**
+     * Checks if the fingerprints in cache.db hold for this artifact, which they only do for the same
+     * version and build channel
+     * @param database Contents of cache.db
+     * @return If the cached fingerprints can be used
+     */
+    private boolean isCacheValid(final YamlConfiguration database) {
+        return version.equals(database.getString(name + ".version"))
+                && recommended == database.getBoolean(name + ".recommended", recommended);
     }
 
     //XXX: Update engine is far too messy and needs to be rethought.
+    /**
+     * Checks for new builds. Fingerprints known from cache.db are reused, so when nothing was built since
+     * the last check, only the build list is requested.
+     * @param printProgress If progress is printed
+     * @param progressMin Progress before the check
+     * @param progressMax Progress once the check is done
+     */
     public void setup(boolean printProgress, int progressMin, int progressMax) {
         double progress = progressMin;
         updateProgress(printProgress, progress);
         YamlConfiguration database = YamlConfiguration.loadConfiguration(SpaceModule.DATABASE);
         
-        String s = Utilities.getContent(jenkinsURLBase + buildAPIString);
+        List<JenkinsBuild> allBuilds = null;
+        String s = httpCache.getContent(jenkinsURLBase + buildAPIString);
         if(s != null) {
-        	Object artifactAPIResponse = SpaceModule.getXStream().fromXML(s);
-            Object recommendedArtifactAPIResponse = SpaceModule.getXStream().fromXML(Utilities.getContent(jenkinsURLBase + recommendedAPIString));
-
-            ConfigurationFile allBuilds = new ConfigurationFile(new Node(artifactAPIResponse));
-            ConfigurationFile recommendedBuilds = new ConfigurationFile(new Node(recommendedArtifactAPIResponse));
+            try {
+                allBuilds = JenkinsBuild.parse(s);
+            } catch (XMLStreamException e) {
+                e.printStackTrace();
+            }
+        }
+        if(allBuilds != null && !allBuilds.isEmpty()) {
+            if(!isCacheValid(database))
+                database.set(name, null);
+            database.set(name + ".LastChecked", null);
+            loadBuilds(database);
 
             int lastCheckedBuild = database.getInt(name + ".lastChecked", 0);
 
-            database.set(name + ".version", version);
+            developmentBuild = allBuilds.get(0).getNumber();
 
-            String lastBuild = allBuilds.getString("jenkins[0].number");
-            String lastRecommendedBuild = recommendedBuilds.getString("jenkins[0].number");
-            developmentBuild = Integer.parseInt(lastBuild.trim());
-            try {
-                if(lastRecommendedBuild != null)
-                    recommendedBuild = Integer.parseInt(lastRecommendedBuild.trim());
-                else
-                    recommendedBuild = developmentBuild;
-            } catch(NumberFormatException e) {
-                recommendedBuild = developmentBuild;
+            if (lastCheckedBuild == developmentBuild && database.isString(name + ".artifactName")) {//Nothing new since the last check
+                recommendedBuild = database.getInt(name + ".recommendedBuild", developmentBuild);
+                artifactName = database.getString(name + ".artifactName");
+                updateProgress(printProgress, progressMax);
+                return;
             }
 
-            if (lastCheckedBuild == developmentBuild) {//No need to update the artifact name
-                    artifactName = database.getString(name+"-"+version+".artifactName");
-            } else {
-                artifactName = (SpaceModule.getInstance().recommended ? recommendedBuilds : allBuilds).getString("jenkins[0].artifact.fileName");
-                database.set(name+".artifactName", artifactName);
-            }
+            //Recommended builds are the ones promoted to the recommended level
+            final List<JenkinsBuild> recommendedBuilds = new ArrayList<JenkinsBuild>();
+            for(JenkinsBuild build : allBuilds)
+                if(build.hasLevel(RECOMMENDED_LEVEL))
+                    recommendedBuilds.add(build);
+            recommendedBuild = recommendedBuilds.isEmpty() ? developmentBuild : recommendedBuilds.get(0).getNumber();
 
-            //Map build artifacts to hashes taken from jenkins
-            double progressDiv = (double)(progressMax - progressMin)/(double)allBuilds.getList("jenkins").size();
-            for(Object o : (recommended ? recommendedBuilds : allBuilds).getList("jenkins")) {
-                ConfigurationFile c = new ConfigurationFile(new Node(o));
-                int number = Integer.parseInt(c.getString("number"));
-
-                final String buildPage = Utilities.getContent(jenkinsURLBase + "/job/" + name + "/"
-                        + number + "/artifact/target/" + artifactName + "/*fingerprint*/");
-
-                if (buildPage != null) {
-                    final int beginIndex = buildPage.indexOf("<div class=\"md5sum\">MD5: ") + 25;
-                    final String md5 = buildPage.substring(beginIndex, beginIndex + 32);
-                    progress += progressDiv;
-                    updateProgress(printProgress, progress);
-                    builds.put(number, md5);
-                    database.set(name + ".build" + number, md5);
-                }
+            final List<JenkinsBuild> artifactBuilds = SpaceModule.getInstance().recommended ? recommendedBuilds : allBuilds;
+            artifactName = artifactBuilds.isEmpty() ? null : artifactBuilds.get(0).getFileName();
+
+            //Map build artifacts to hashes taken from jenkins, fetching only the ones not known yet
+            final List<Integer> unknown = new ArrayList<Integer>();
+            for(JenkinsBuild build : recommended ? recommendedBuilds : allBuilds) {
+                if(!builds.containsKey(build.getNumber()))
+                    unknown.add(build.getNumber());
+            }
+            final int[] numbers = new int[unknown.size()];
+            for(int i = 0; i < numbers.length; i++)
+                numbers[i] = unknown.get(i);
+            final String[] md5s = fetchFingerprints(numbers, printProgress, progress, progressMax);
+            boolean complete = true;
+            for(int i = 0; i < numbers.length; i++) {
+                if (md5s[i] != null) {
+                    putBuild(numbers[i], md5s[i]);
+                    database.set(name + ".build" + numbers[i], builds.get(numbers[i]));
+                } else
+                    complete = false;
             }
 
-            database.set(name + ".LastChecked", developmentBuild);
+            database.set(name + ".version", version);
+            database.set(name + ".recommended", recommended);
+            database.set(name + ".recommendedBuild", recommendedBuild);
+            database.set(name + ".artifactName", artifactName);
+            if(complete) //Builds that couldn't be fetched are retried on the next check
+                database.set(name + ".lastChecked", developmentBuild);
             try {
-                database.save(SpaceModule.DATABASE);
+                Utilities.writeAtomically(SpaceModule.DATABASE, database.saveToString());
             } catch (IOException e) {
                 e.printStackTrace();
             }
-
-            database.set(name+".build" + ".lastChecked", developmentBuild);
         }
         updateProgress(printProgress, progressMax);
     }
 
+    /**
+     * Loads the fingerprints known from cache.db, the most recent build first
+     * @param database Contents of cache.db
+     */
+    private void loadBuilds(final YamlConfiguration database) {
+        builds.clear();
+        buildsByMD5.clear();
+        final ConfigurationSection section = database.getConfigurationSection(name);
+        if (section == null)
+            return;
+        final TreeMap<Integer, String> known = new TreeMap<Integer, String>(Collections.reverseOrder());
+        for (final String key : section.getKeys(false)) {
+            if (!key.startsWith("build") || !section.isString(key))
+                continue;
+            try {
+                known.put(Integer.parseInt(key.substring(5)), section.getString(key));
+            } catch (final NumberFormatException e) {}
+        }
+        for (final Map.Entry<Integer, String> build : known.entrySet())
+            putBuild(build.getKey(), build.getValue());
+    }
+
+    /**
+     * Fetches the MD5s of the artifacts of builds from their Jenkins fingerprint pages, a few at a time.
+     * Progress is reported from the calling thread as the requests complete.
+     * @param numbers Build numbers
+     * @param printProgress If progress is printed
+     * @param progressMin Progress before the first request completes
+     * @param progressMax Progress once all the requests completed
+     * @return MD5 of each build, null for the builds whose page couldn't be read
+     */
+    private String[] fetchFingerprints(final int[] numbers, final boolean printProgress, final double progressMin,
+            final double progressMax) {
+        final String[] md5s = new String[numbers.length];
+        if (numbers.length == 0)
+            return md5s;
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(FINGERPRINT_THREADS, numbers.length),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "SpaceModule Fingerprint Fetcher");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        final CompletionService<Integer> completion = new ExecutorCompletionService<Integer>(executor);
+        try {
+            for (int i = 0; i < numbers.length; i++) {
+                final int index = i;
+                completion.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        md5s[index] = fetchFingerprint(numbers[index]);
+                        return index;
+                    }
+                });
+            }
+            final double progressDiv = (progressMax - progressMin) / numbers.length;
+            double progress = progressMin;
+            for (int i = 0; i < numbers.length; i++) {
+                try {
+                    completion.take().get();
+                } catch (final ExecutionException e) {
+                    e.printStackTrace();
+                }
+                progress += progressDiv;
+                updateProgress(printProgress, progress);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return md5s;
+    }
+
+    /**
+     * Fetches the MD5 of the artifact of a build from it's Jenkins fingerprint page
+     * @param number Build number
+     * @return MD5 of the artifact, null if the page couldn't be read
+     */
+    private String fetchFingerprint(final int number) {
+        final String buildPage = Utilities.getContent(jenkinsURLBase + "/job/" + name + "/"
+                + number + "/artifact/target/" + artifactName + "/*fingerprint*/");
+        if (buildPage == null)
+            return null;
+        final int index = buildPage.indexOf("<div class=\"md5sum\">MD5: ");
+        if (index < 0 || index + 57 > buildPage.length())
+            return null;
+        return buildPage.substring(index + 25, index + 57);
+    }
+
     public String getArtifactFileName() {
         return artifactName;
     }
@@ -0,0 +1,161 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.management;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Build of a Jenkins job, as listed by the Jenkins XML API
+ */
+public class JenkinsBuild {
+    private static final XMLInputFactory factory = XMLInputFactory.newInstance();
+
+    static {
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final int           number;
+    private final String        fileName;
+    private final List<Integer> levelValues;
+
+    /**
+     * Creates a new JenkinsBuild
+     * @param number Build number
+     * @param fileName File name of the first artifact, null if none
+     * @param levelValues Promotion levels of the build
+     */
+    public JenkinsBuild(final int number, final String fileName, final List<Integer> levelValues) {
+        this.number = number;
+        this.fileName = fileName;
+        this.levelValues = levelValues;
+    }
+
+    /**
+     * Gets the number of the build
+     * @return Build number
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Gets the file name of the artifact of the build
+     * @return File name of the first artifact, null if none
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Checks if the build was promoted to a level
+     * @param levelValue Promotion level
+     * @return If the build has the level
+     */
+    public boolean hasLevel(final int levelValue) {
+        return levelValues.contains(levelValue);
+    }
+
+    /**
+     * Parses a build list of the Jenkins XML API in a single pass, reading only the build numbers, the
+     * artifact file names and the promotion levels
+     * @param xml XML build list
+     * @return The builds, in the order of the list
+     * @throws XMLStreamException If the XML is malformed
+     */
+    public static List<JenkinsBuild> parse(final String xml) throws XMLStreamException {
+        return parse(new StringReader(xml));
+    }
+
+    /**
+     * Parses a build list of the Jenkins XML API in a single pass
+     * @param xml Reader of the XML build list
+     * @return The builds, in the order of the list
+     * @throws XMLStreamException If the XML is malformed
+     * @see #parse(String)
+     */
+    public static List<JenkinsBuild> parse(final Reader xml) throws XMLStreamException {
+        final List<JenkinsBuild> builds = new ArrayList<JenkinsBuild>();
+        final XMLStreamReader reader = factory.createXMLStreamReader(xml);
+        try {
+            int depth = 0;
+            int buildDepth = -1;
+            String parent = null;
+            int number = -1;
+            String fileName = null;
+            List<Integer> levelValues = null;
+            while (reader.hasNext())
+                switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    final String element = reader.getLocalName();
+                    if (buildDepth < 0) {
+                        if (element.equals("build")) {
+                            buildDepth = depth;
+                            number = -1;
+                            fileName = null;
+                            levelValues = new ArrayList<Integer>(1);
+                        }
+                    } else if (depth == buildDepth + 1) {
+                        parent = element;
+                        if (element.equals("number")) {
+                            number = parseInt(reader.getElementText(), -1);
+                            depth--; // getElementText() consumed the end of the element
+                        }
+                    } else if (depth == buildDepth + 2) {
+                        if (element.equals("fileName") && "artifact".equals(parent)) {
+                            final String text = reader.getElementText().trim();
+                            if (fileName == null)
+                                fileName = text;
+                            depth--;
+                        } else if (element.equals("levelValue") && "action".equals(parent)) {
+                            final int levelValue = parseInt(reader.getElementText(), -1);
+                            if (levelValue >= 0)
+                                levelValues.add(levelValue);
+                            depth--;
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (depth == buildDepth) {
+                        if (number >= 0)
+                            builds.add(new JenkinsBuild(number, fileName, levelValues));
+                        buildDepth = -1;
+                    }
+                    depth--;
+                    break;
+                }
+        } finally {
+            reader.close();
+        }
+        return builds;
+    }
+
+    private static int parseInt(final String text, final int defaultValue) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (final NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
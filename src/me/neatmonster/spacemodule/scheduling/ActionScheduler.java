@@ -0,0 +1,297 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.scheduling;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import me.neatmonster.spacemodule.SpaceModule;
+import me.neatmonster.spacemodule.api.ActionException;
+import me.neatmonster.spacemodule.api.ActionsManager;
+import me.neatmonster.spacemodule.api.Priority;
+import me.neatmonster.spacemodule.api.UnhandledActionException;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * Runs schedulable Actions on cron expressions or at fixed rates.
+ * Schedules are kept in a timing wheel ticking every second and persisted to a file with the time of
+ * their last run, so runs missed while the Wrapper was stopped are caught up once on start.
+ * The owner of the ActionsManager starts it along with the manager and stops it before shutting the
+ * manager down. While it runs, the ScheduleActions let the Panel create, list and cancel schedules.
+ */
+public class ActionScheduler implements Runnable {
+    private static final long TICK_MILLIS   = 1000L;
+    private static final int  WHEEL_SIZE    = 64;
+    private static final long SAVE_INTERVAL = 5000L;
+
+    private final ActionsManager        actionsManager;
+    private final File                  file;
+    private final Map<String, Schedule> schedules = new LinkedHashMap<String, Schedule>();
+    private TimingWheel<Schedule>       wheel;
+    private Thread                      thread;
+    private volatile boolean            running   = false;
+    private boolean                     dirty     = false;
+    private long                        lastSave  = 0L;
+
+    /**
+     * Creates a new ActionScheduler persisting it's schedules to the schedules file of the Module
+     * @param actionsManager Manager to execute the actions with
+     */
+    public ActionScheduler(final ActionsManager actionsManager) {
+        this(actionsManager, SpaceModule.SCHEDULES);
+    }
+
+    /**
+     * Creates a new ActionScheduler
+     * @param actionsManager Manager to execute the actions with
+     * @param file File the schedules are persisted to
+     */
+    public ActionScheduler(final ActionsManager actionsManager, final File file) {
+        this.actionsManager = actionsManager;
+        this.file = file;
+    }
+
+    /**
+     * Schedules an action on a cron expression
+     * @param alias Action name
+     * @param cron Cron expression, such as "0 4 * * *" for every day at 4 AM
+     * @param arguments Arguments to execute the action with
+     * @return The schedule
+     * @throws ActionException If the action is not defined or not schedulable
+     * @throws IllegalArgumentException If the cron expression is invalid
+     */
+    public Schedule schedule(final String alias, final String cron, final Object... arguments) throws ActionException {
+        checkSchedulable(alias);
+        final CronExpression expression = new CronExpression(cron);
+        synchronized (this) {
+            return add(new Schedule(newId(), alias, arguments.clone(), expression, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Schedules an action at a fixed rate
+     * @param alias Action name
+     * @param startMillis Time of the first run
+     * @param periodMillis Time between two runs
+     * @param arguments Arguments to execute the action with
+     * @return The schedule
+     * @throws ActionException If the action is not defined or not schedulable
+     */
+    public Schedule scheduleAtFixedRate(final String alias, final long startMillis, final long periodMillis,
+            final Object... arguments) throws ActionException {
+        checkSchedulable(alias);
+        if (periodMillis < TICK_MILLIS)
+            throw new IllegalArgumentException("Period must be at least " + TICK_MILLIS + " ms.");
+        synchronized (this) {
+            return add(new Schedule(newId(), alias, arguments.clone(), startMillis, periodMillis));
+        }
+    }
+
+    /**
+     * Cancels a schedule
+     * @param id Identifier of the schedule
+     * @return If a schedule was cancelled
+     */
+    public synchronized boolean cancel(final String id) {
+        final Schedule schedule = schedules.remove(id);
+        if (schedule == null)
+            return false;
+        schedule.cancel(); // Left in the wheel and skipped once due
+        dirty = true;
+        save(true);
+        return true;
+    }
+
+    /**
+     * Gets the schedules
+     * @return Schedules, in creation order
+     */
+    public synchronized List<Schedule> getSchedules() {
+        return new ArrayList<Schedule>(schedules.values());
+    }
+
+    /**
+     * Loads the persisted schedules, runs the ones that missed a run, starts the scheduler thread and
+     * registers the ScheduleActions
+     */
+    public void start() {
+        final List<Schedule> missed = new ArrayList<Schedule>();
+        synchronized (this) {
+            if (running)
+                return;
+            final long now = System.currentTimeMillis();
+            wheel = new TimingWheel<Schedule>(TICK_MILLIS, WHEEL_SIZE, now);
+            schedules.clear();
+            load();
+            for (final Schedule schedule : schedules.values()) {
+                final long expected = schedule.next(Math.max(schedule.getLastRun(), schedule.getStartMillis() - 1L));
+                if (expected != -1L && expected <= now) {
+                    schedule.setLastRun(now);
+                    missed.add(schedule);
+                    dirty = true;
+                }
+                enqueue(schedule, now);
+            }
+            running = true;
+            thread = new Thread(this, "SpaceModule Scheduler");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        actionsManager.register(new ScheduleActions(this));
+        execute(missed);
+    }
+
+    /**
+     * Unregisters the ScheduleActions, stops the scheduler thread and persists the schedules
+     */
+    public void stop() {
+        final Thread thread;
+        synchronized (this) {
+            if (!running)
+                return;
+            running = false;
+            thread = this.thread;
+            this.thread = null;
+            save(true);
+        }
+        actionsManager.unregister(ScheduleActions.class);
+        thread.interrupt();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                Thread.sleep(TICK_MILLIS - System.currentTimeMillis() % TICK_MILLIS);
+            } catch (final InterruptedException e) {
+                continue;
+            }
+            final List<Schedule> due = new ArrayList<Schedule>();
+            synchronized (this) {
+                if (!running)
+                    break;
+                final long now = System.currentTimeMillis();
+                for (final Schedule schedule : wheel.advance(now)) {
+                    if (schedule.isCancelled())
+                        continue;
+                    schedule.setLastRun(now);
+                    due.add(schedule);
+                    enqueue(schedule, now);
+                    dirty = true;
+                }
+                save(false);
+            }
+            execute(due);
+        }
+    }
+
+    private void execute(final List<Schedule> due) {
+        for (final Schedule schedule : due)
+            try {
+                actionsManager.executeAsync(Priority.BULK, schedule.getAlias(), schedule.getArguments());
+            } catch (final UnhandledActionException e) {
+                e.printStackTrace();
+            }
+    }
+
+    private void checkSchedulable(final String alias) throws ActionException {
+        if (!actionsManager.isSchedulable(alias))
+            throw new ActionException(alias + " is not schedulable.");
+    }
+
+    private Schedule add(final Schedule schedule) {
+        schedules.put(schedule.getId(), schedule);
+        if (wheel != null)
+            enqueue(schedule, System.currentTimeMillis());
+        dirty = true;
+        save(true);
+        return schedule;
+    }
+
+    private void enqueue(final Schedule schedule, final long now) {
+        final long next = schedule.next(now);
+        if (next != -1L)
+            wheel.add(next, schedule);
+    }
+
+    private String newId() {
+        String id;
+        do
+            id = UUID.randomUUID().toString().substring(0, 8);
+        while (schedules.containsKey(id));
+        return id;
+    }
+
+    private void load() {
+        if (!file.exists())
+            return;
+        final YamlConfiguration configuration = YamlConfiguration.loadConfiguration(file);
+        final ConfigurationSection section = configuration.getConfigurationSection("schedules");
+        if (section == null)
+            return;
+        for (final String id : section.getKeys(false)) {
+            final ConfigurationSection entry = section.getConfigurationSection(id);
+            final String alias = entry.getString("action");
+            final List<?> list = entry.getList("arguments", new ArrayList<Object>());
+            final Object[] arguments = list.toArray(new Object[list.size()]);
+            final Schedule schedule;
+            try {
+                if (entry.contains("cron"))
+                    schedule = new Schedule(id, alias, arguments, new CronExpression(entry.getString("cron")),
+                            entry.getLong("start"));
+                else
+                    schedule = new Schedule(id, alias, arguments, entry.getLong("start"), entry.getLong("period"));
+            } catch (final IllegalArgumentException e) {
+                e.printStackTrace();
+                continue;
+            }
+            schedule.setLastRun(entry.getLong("lastRun", 0L));
+            schedules.put(id, schedule);
+        }
+    }
+
+    private void save(final boolean force) {
+        final long now = System.currentTimeMillis();
+        if (!dirty || !force && now - lastSave < SAVE_INTERVAL)
+            return;
+        final YamlConfiguration configuration = new YamlConfiguration();
+        for (final Schedule schedule : schedules.values()) {
+            final String path = "schedules." + schedule.getId();
+            configuration.set(path + ".action", schedule.getAlias());
+            configuration.set(path + ".arguments", new ArrayList<Object>(Arrays.asList(schedule.getArguments())));
+            if (schedule.getCron() != null)
+                configuration.set(path + ".cron", schedule.getCron().toString());
+            else
+                configuration.set(path + ".period", schedule.getPeriodMillis());
+            configuration.set(path + ".start", schedule.getStartMillis());
+            configuration.set(path + ".lastRun", schedule.getLastRun());
+        }
+        try {
+            configuration.save(file);
+            dirty = false;
+            lastSave = now;
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
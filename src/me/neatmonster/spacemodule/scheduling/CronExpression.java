@@ -0,0 +1,155 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.scheduling;
+
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Cron expression of five fields: minute, hour, day of month, month and day of week.
+ * Fields accept {@code *}, values, ranges ({@code 1-5}), steps ({@code *}{@code /15}, {@code 0-30/5}) and
+ * lists of them. Months and days of week also accept their three letter English names.
+ */
+public class CronExpression {
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT",
+            "NOV", "DEC"};
+    private static final String[] DAYS   = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    private final String   expression;
+    private final BitSet   minutes;
+    private final BitSet   hours;
+    private final BitSet   daysOfMonth;
+    private final BitSet   months;
+    private final BitSet   daysOfWeek;
+    private final boolean  anyDayOfMonth;
+    private final boolean  anyDayOfWeek;
+    private final TimeZone timeZone;
+
+    /**
+     * Parses a cron expression in the default time zone
+     * @param expression Expression to parse
+     * @throws IllegalArgumentException If the expression is invalid
+     */
+    public CronExpression(final String expression) {
+        this(expression, TimeZone.getDefault());
+    }
+
+    /**
+     * Parses a cron expression
+     * @param expression Expression to parse
+     * @param timeZone Time zone the expression is evaluated in
+     * @throws IllegalArgumentException If the expression is invalid
+     */
+    public CronExpression(final String expression, final TimeZone timeZone) {
+        final String[] fields = expression.trim().toUpperCase().split("\\s+");
+        if (fields.length != 5)
+            throw new IllegalArgumentException("5 fields expected, not " + fields.length + " in " + expression + ".");
+        this.expression = expression.trim();
+        this.timeZone = timeZone;
+        minutes = parse(fields[0], 0, 59, null);
+        hours = parse(fields[1], 0, 23, null);
+        daysOfMonth = parse(fields[2], 1, 31, null);
+        months = parse(fields[3], 1, 12, MONTHS);
+        daysOfWeek = parse(fields[4], 0, 7, DAYS);
+        if (daysOfWeek.get(7))
+            daysOfWeek.set(0); // Both 0 and 7 are Sunday
+        anyDayOfMonth = fields[2].equals("*") || fields[2].equals("?");
+        anyDayOfWeek = fields[4].equals("*") || fields[4].equals("?");
+    }
+
+    private static BitSet parse(final String field, final int min, final int max, final String[] names) {
+        final BitSet values = new BitSet(max + 1);
+        for (final String part : field.split(",")) {
+            final int slash = part.indexOf('/');
+            final String range = slash < 0 ? part : part.substring(0, slash);
+            final int step = slash < 0 ? 1 : Integer.parseInt(part.substring(slash + 1));
+            final int from, to;
+            if (range.equals("*") || range.equals("?")) {
+                from = min;
+                to = max;
+            } else if (range.indexOf('-') > 0) {
+                from = value(range.substring(0, range.indexOf('-')), min, names);
+                to = value(range.substring(range.indexOf('-') + 1), min, names);
+            } else {
+                from = value(range, min, names);
+                to = slash < 0 ? from : max;
+            }
+            if (from < min || to > max || from > to || step < 1)
+                throw new IllegalArgumentException("Invalid cron field " + field + ".");
+            for (int v = from; v <= to; v += step)
+                values.set(v);
+        }
+        return values;
+    }
+
+    private static int value(final String value, final int min, final String[] names) {
+        if (names != null)
+            for (int n = 0; n < names.length; n++)
+                if (names[n].equals(value))
+                    return n + min;
+        try {
+            return Integer.parseInt(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cron value " + value + ".");
+        }
+    }
+
+    /**
+     * Gets the first time matching the expression strictly after a time
+     * @param afterMillis Time to search from
+     * @return Matching time, -1 if there is none within the next five years
+     */
+    public long next(final long afterMillis) {
+        final Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(afterMillis);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        calendar.add(Calendar.MINUTE, 1);
+        final int limit = calendar.get(Calendar.YEAR) + 5;
+        while (calendar.get(Calendar.YEAR) <= limit) {
+            if (!months.get(calendar.get(Calendar.MONTH) + 1)) {
+                calendar.add(Calendar.MONTH, 1);
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                calendar.set(Calendar.HOUR_OF_DAY, 0);
+                calendar.set(Calendar.MINUTE, 0);
+            } else if (!matchesDay(calendar)) {
+                calendar.add(Calendar.DAY_OF_MONTH, 1);
+                calendar.set(Calendar.HOUR_OF_DAY, 0);
+                calendar.set(Calendar.MINUTE, 0);
+            } else if (!hours.get(calendar.get(Calendar.HOUR_OF_DAY))) {
+                calendar.add(Calendar.HOUR_OF_DAY, 1);
+                calendar.set(Calendar.MINUTE, 0);
+            } else if (!minutes.get(calendar.get(Calendar.MINUTE)))
+                calendar.add(Calendar.MINUTE, 1);
+            else
+                return calendar.getTimeInMillis();
+        }
+        return -1L;
+    }
+
+    private boolean matchesDay(final Calendar calendar) {
+        final boolean dayOfMonth = daysOfMonth.get(calendar.get(Calendar.DAY_OF_MONTH));
+        final boolean dayOfWeek = daysOfWeek.get(calendar.get(Calendar.DAY_OF_WEEK) - 1);
+        if (anyDayOfMonth || anyDayOfWeek)
+            return dayOfMonth && dayOfWeek;
+        return dayOfMonth || dayOfWeek;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
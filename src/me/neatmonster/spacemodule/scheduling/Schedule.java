@@ -0,0 +1,150 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.scheduling;
+
+/**
+ * A schedulable Action run by the ActionScheduler, either on a cron expression or at a fixed rate
+ */
+public class Schedule {
+    private final String         id;
+    private final String         alias;
+    private final Object[]       arguments;
+    private final CronExpression cron;
+    private final long           startMillis;
+    private final long           periodMillis;
+    private volatile long        lastRun;
+    private volatile boolean     cancelled;
+
+    /**
+     * Creates a new Schedule running on a cron expression
+     * @param id Identifier of the schedule
+     * @param alias Action name
+     * @param arguments Arguments to execute the action with
+     * @param cron Expression the action runs on
+     * @param createdMillis Time the schedule was created, runs are only due after it
+     */
+    Schedule(final String id, final String alias, final Object[] arguments, final CronExpression cron,
+            final long createdMillis) {
+        this.id = id;
+        this.alias = alias;
+        this.arguments = arguments;
+        this.cron = cron;
+        startMillis = createdMillis;
+        periodMillis = 0L;
+    }
+
+    /**
+     * Creates a new Schedule running at a fixed rate
+     * @param id Identifier of the schedule
+     * @param alias Action name
+     * @param arguments Arguments to execute the action with
+     * @param startMillis Time of the first run
+     * @param periodMillis Time between two runs
+     */
+    Schedule(final String id, final String alias, final Object[] arguments, final long startMillis,
+            final long periodMillis) {
+        this.id = id;
+        this.alias = alias;
+        this.arguments = arguments;
+        cron = null;
+        this.startMillis = startMillis;
+        this.periodMillis = periodMillis;
+    }
+
+    /**
+     * Gets the time of the first run strictly after a time
+     * @param afterMillis Time to search from
+     * @return Time of the run, -1 if there is none
+     */
+    public long next(final long afterMillis) {
+        if (cron != null)
+            return cron.next(Math.max(afterMillis, startMillis));
+        if (afterMillis < startMillis)
+            return startMillis;
+        return startMillis + ((afterMillis - startMillis) / periodMillis + 1L) * periodMillis;
+    }
+
+    /**
+     * Gets the identifier of the schedule
+     * @return Identifier
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of the action
+     * @return Action name
+     */
+    public String getAlias() {
+        return alias;
+    }
+
+    /**
+     * Gets the arguments of the action
+     * @return A copy of the arguments
+     */
+    public Object[] getArguments() {
+        return arguments.clone();
+    }
+
+    /**
+     * Gets the cron expression of the schedule
+     * @return Cron expression, null if it runs at a fixed rate
+     */
+    public CronExpression getCron() {
+        return cron;
+    }
+
+    /**
+     * Gets the time of the first run, or the creation time of a cron schedule
+     * @return Start time
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Gets the time between two runs
+     * @return Period, 0 if it runs on a cron expression
+     */
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    /**
+     * Gets the time of the last run
+     * @return Time of the last run, 0 if it never ran
+     */
+    public long getLastRun() {
+        return lastRun;
+    }
+
+    void setLastRun(final long lastRun) {
+        this.lastRun = lastRun;
+    }
+
+    /**
+     * Checks if the schedule was cancelled
+     * @return If it was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+}
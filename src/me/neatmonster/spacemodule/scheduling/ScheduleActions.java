@@ -0,0 +1,104 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import me.neatmonster.spacemodule.api.Action;
+import me.neatmonster.spacemodule.api.ActionException;
+import me.neatmonster.spacemodule.api.ActionHandler;
+
+/**
+ * Actions managing the schedules of an ActionScheduler, registered while it is running
+ */
+public class ScheduleActions implements ActionHandler {
+    private final ActionScheduler scheduler;
+
+    /**
+     * Creates new ScheduleActions
+     * @param scheduler Scheduler the actions manage
+     */
+    public ScheduleActions(final ActionScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Schedules an action on a cron expression
+     * @param alias Action name
+     * @param cron Cron expression, such as "0 4 * * *" for every day at 4 AM
+     * @param arguments Arguments to execute the action with
+     * @return Identifier of the schedule
+     * @throws ActionException If the action is not defined or not schedulable
+     */
+    @Action(aliases = {"scheduleAction", "schedule"}, schedulable = false)
+    public String scheduleAction(final String alias, final String cron, final List<Object> arguments)
+            throws ActionException {
+        return scheduler.schedule(alias, cron, arguments.toArray()).getId();
+    }
+
+    /**
+     * Schedules an action at a fixed rate
+     * @param alias Action name
+     * @param startMillis Time of the first run
+     * @param periodMillis Time between two runs
+     * @param arguments Arguments to execute the action with
+     * @return Identifier of the schedule
+     * @throws ActionException If the action is not defined or not schedulable
+     */
+    @Action(aliases = {"scheduleActionAtFixedRate", "scheduleAtFixedRate"}, schedulable = false)
+    public String scheduleActionAtFixedRate(final String alias, final long startMillis, final long periodMillis,
+            final List<Object> arguments) throws ActionException {
+        return scheduler.scheduleAtFixedRate(alias, startMillis, periodMillis, arguments.toArray()).getId();
+    }
+
+    /**
+     * Gets the schedules
+     * @return Schedules, in creation order
+     */
+    @Action(aliases = {"getSchedules", "schedules"}, schedulable = false)
+    public List<Map<String, Object>> getSchedules() {
+        final long now = System.currentTimeMillis();
+        final List<Map<String, Object>> maps = new ArrayList<Map<String, Object>>();
+        for (final Schedule schedule : scheduler.getSchedules()) {
+            final Map<String, Object> map = new LinkedHashMap<String, Object>();
+            map.put("id", schedule.getId());
+            map.put("action", schedule.getAlias());
+            map.put("arguments", Arrays.asList(schedule.getArguments()));
+            if (schedule.getCron() != null)
+                map.put("cron", schedule.getCron().toString());
+            else
+                map.put("period", schedule.getPeriodMillis());
+            map.put("start", schedule.getStartMillis());
+            map.put("lastRun", schedule.getLastRun());
+            map.put("nextRun", schedule.next(now));
+            maps.add(map);
+        }
+        return maps;
+    }
+
+    /**
+     * Cancels a schedule
+     * @param id Identifier of the schedule
+     * @return If a schedule was cancelled
+     */
+    @Action(aliases = {"cancelSchedule", "unschedule"}, schedulable = false)
+    public boolean cancelSchedule(final String id) {
+        return scheduler.cancel(id);
+    }
+}
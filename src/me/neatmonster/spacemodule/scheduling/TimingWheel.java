@@ -0,0 +1,153 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel.
+ * Time is cut in ticks, and each level of the wheel holds the tasks due within its number of slots, in units
+ * of the previous level's span. Adding a task and advancing by a tick are constant time whatever the number
+ * of tasks, which stay in a higher level until their slot is close enough to be cascaded down.
+ * @param <T> Type of the tasks
+ */
+public class TimingWheel<T> {
+    private static final int MAX_LEVELS = 8;
+
+    private final long              tickMillis;
+    private final int               wheelSize;
+    private final List<Level>       levels = new ArrayList<Level>();
+    private long                    currentTick;
+    private int                     size;
+
+    /**
+     * Creates a new TimingWheel
+     * @param tickMillis Duration of a tick, the precision of the wheel
+     * @param wheelSize Number of slots of each level
+     * @param startMillis Current time
+     */
+    public TimingWheel(final long tickMillis, final int wheelSize, final long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        currentTick = startMillis / tickMillis;
+        levels.add(new Level(1L));
+    }
+
+    /**
+     * Adds a task
+     * @param dueMillis Time the task is due at
+     * @param task Task to add
+     * @return If the task was added, false if it is already due
+     */
+    public boolean add(final long dueMillis, final T task) {
+        final long dueTick = (dueMillis + tickMillis - 1L) / tickMillis;
+        if (dueTick <= currentTick)
+            return false;
+        place(new Entry<T>(dueTick, task));
+        size++;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to a time
+     * @param nowMillis Current time
+     * @return Tasks that became due, in the order they were due
+     */
+    public List<T> advance(final long nowMillis) {
+        final List<T> due = new ArrayList<T>();
+        final long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            for (int l = levels.size() - 1; l > 0; l--) {
+                final Level level = levels.get(l);
+                if (currentTick % level.span == 0L)
+                    for (final Entry<T> entry : level.take(currentTick / level.span))
+                        if (entry.dueTick <= currentTick) {
+                            due.add(entry.task);
+                            size--;
+                        } else
+                            place(entry);
+            }
+            for (final Entry<T> entry : levels.get(0).take(currentTick)) {
+                due.add(entry.task);
+                size--;
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Gets the number of tasks in the wheel
+     * @return Number of tasks
+     */
+    public int size() {
+        return size;
+    }
+
+    private void place(final Entry<T> entry) {
+        for (int l = 0;; l++) {
+            if (l == levels.size())
+                levels.add(new Level(levels.get(l - 1).span * wheelSize));
+            final Level level = levels.get(l);
+            if (entry.dueTick / level.span - currentTick / level.span < wheelSize || l == MAX_LEVELS - 1) {
+                level.put(entry.dueTick / level.span, entry);
+                return;
+            }
+        }
+    }
+
+    private class Level {
+        private final long                span;
+        private final List<List<Entry<T>>> buckets = new ArrayList<List<Entry<T>>>(wheelSize);
+
+        Level(final long span) {
+            this.span = span;
+            for (int b = 0; b < wheelSize; b++)
+                buckets.add(null);
+        }
+
+        void put(final long slot, final Entry<T> entry) {
+            final int index = (int) (slot % wheelSize);
+            List<Entry<T>> bucket = buckets.get(index);
+            if (bucket == null) {
+                bucket = new ArrayList<Entry<T>>();
+                buckets.set(index, bucket);
+            }
+            bucket.add(entry);
+        }
+
+        List<Entry<T>> take(final long slot) {
+            final List<Entry<T>> bucket = buckets.set((int) (slot % wheelSize), null);
+            if (bucket == null)
+                return new ArrayList<Entry<T>>(0);
+            return bucket;
+        }
+    }
+
+    private static class Entry<T> {
+        private final long dueTick;
+        private final T    task;
+
+        Entry(final long dueTick, final T task) {
+            this.dueTick = dueTick;
+            this.task = task;
+        }
+    }
+}
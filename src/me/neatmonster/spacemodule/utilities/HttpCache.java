@@ -0,0 +1,213 @@
+/*
+ * This file is part of SpaceModule (http://spacebukkit.xereo.net/).
+ *
+ * SpaceModule is free software: you can redistribute it and/or modify it under the terms of the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license as published by the Creative
+ * Common organization, either version 3.0 of the license, or (at your option) any later version.
+ *
+ * SpaceBukkit is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA) license for more details.
+ *
+ * You should have received a copy of the Attribution-NonCommercial-ShareAlike Unported (CC BY-NC-SA)
+ * license along with this program. If not, see <http://creativecommons.org/licenses/by-nc-sa/3.0/>.
+ */
+package me.neatmonster.spacemodule.utilities;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Properties;
+
+/**
+ * On-disk cache of HTTP responses, revalidated with conditional requests.
+ * Responses are stored with their ETag and Last-Modified headers and sent back as If-None-Match and
+ * If-Modified-Since, so unchanged responses cost a 304 without a body. When the request fails, the
+ * cached response is returned even if stale. The least recently used responses are evicted once the
+ * cache grows over it's maximum size.
+ */
+public class HttpCache {
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT    = 30000;
+
+    private final File       directory;
+    private final long       maxSize;
+
+    /**
+     * Creates a new HttpCache
+     * @param directory Directory the responses are stored in
+     * @param maxSize Maximum size of the stored responses, in bytes
+     */
+    public HttpCache(final File directory, final long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the contents of a URL, from the cache if they didn't change
+     * @param urlString URL to get the contents of
+     * @return Contents of the URL, the cached ones if the request failed, null if none are cached
+     */
+    public String getContent(final String urlString) {
+        final String key = key(urlString);
+        final File body = new File(directory, key + ".body");
+        final Properties cached = load(key, urlString);
+        try {
+            final URLConnection urlConnection = new URL(urlString).openConnection();
+            if (!(urlConnection instanceof HttpURLConnection))
+                return Utilities.getContent(urlString);
+            final HttpURLConnection connection = (HttpURLConnection) urlConnection;
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+            if (cached != null) {
+                if (cached.getProperty("etag") != null)
+                    connection.setRequestProperty("If-None-Match", cached.getProperty("etag"));
+                if (cached.getProperty("lastModified") != null)
+                    connection.setRequestProperty("If-Modified-Since", cached.getProperty("lastModified"));
+            }
+            final int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                drain(connection);
+                body.setLastModified(System.currentTimeMillis());
+                return read(body);
+            }
+            if (status == HttpURLConnection.HTTP_OK) {
+                final String content = Utilities.readContent(connection.getInputStream());
+                store(key, urlString, content, connection.getHeaderField("ETag"),
+                        connection.getHeaderField("Last-Modified"));
+                return content;
+            }
+            drain(connection);
+        } catch (final IOException e) {}
+        // Stale if error
+        if (cached != null)
+            try {
+                return read(body);
+            } catch (final IOException e) {}
+        return null;
+    }
+
+    /**
+     * Loads the headers of a cached response
+     * @param key Key of the response
+     * @param urlString URL of the response
+     * @return The headers, null if no response is cached for the URL
+     */
+    private synchronized Properties load(final String key, final String urlString) {
+        final File meta = new File(directory, key + ".meta");
+        if (!meta.isFile() || !new File(directory, key + ".body").isFile())
+            return null;
+        final Properties properties = new Properties();
+        try {
+            final Reader reader = new InputStreamReader(new FileInputStream(meta), "UTF-8");
+            try {
+                properties.load(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (final IOException e) {
+            return null;
+        }
+        return urlString.equals(properties.getProperty("url")) ? properties : null;
+    }
+
+    /**
+     * Stores a response and evicts the least recently used ones if the cache is full
+     * @param key Key of the response
+     * @param urlString URL of the response
+     * @param content Contents of the response
+     * @param etag ETag header, null if none
+     * @param lastModified Last-Modified header, null if none
+     */
+    private synchronized void store(final String key, final String urlString, final String content,
+            final String etag, final String lastModified) {
+        final File meta = new File(directory, key + ".meta");
+        final Properties properties = new Properties();
+        properties.setProperty("url", urlString);
+        if (etag != null)
+            properties.setProperty("etag", etag);
+        if (lastModified != null)
+            properties.setProperty("lastModified", lastModified);
+        try {
+            Utilities.writeAtomically(new File(directory, key + ".body"), content);
+            final StringWriter writer = new StringWriter();
+            properties.store(writer, null);
+            Utilities.writeAtomically(meta, writer.toString());
+        } catch (final IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        evict();
+    }
+
+    /**
+     * Deletes the least recently used responses until the cache fits in it's maximum size
+     */
+    private void evict() {
+        final File[] bodies = directory.listFiles();
+        if (bodies == null)
+            return;
+        long size = 0L;
+        for (final File file : bodies)
+            size += file.length();
+        if (size <= maxSize)
+            return;
+        Arrays.sort(bodies, new Comparator<File>() {
+            @Override
+            public int compare(final File first, final File second) {
+                final long difference = first.lastModified() - second.lastModified();
+                return difference < 0L ? -1 : difference > 0L ? 1 : 0;
+            }
+        });
+        for (final File file : bodies) {
+            if (size <= maxSize)
+                break;
+            final String name = file.getName();
+            if (!name.endsWith(".body"))
+                continue;
+            final File meta = new File(directory, name.substring(0, name.length() - 5) + ".meta");
+            size -= file.length() + meta.length();
+            file.delete();
+            meta.delete();
+        }
+    }
+
+    private static String read(final File file) throws IOException {
+        return Utilities.readContent(new FileInputStream(file));
+    }
+
+    private static void drain(final HttpURLConnection connection) throws IOException {
+        final InputStream stream = connection.getResponseCode() >= 400 ? connection.getErrorStream()
+                : connection.getInputStream();
+        if (stream != null) // Reading the response to the end lets the connection be reused
+            Utilities.readContent(stream);
+    }
+
+    /**
+     * Gets the key a URL is stored under
+     * @param urlString URL of the response
+     * @return MD5 of the URL
+     */
+    private static String key(final String urlString) {
+        try {
+            final byte[] bytes = MessageDigest.getInstance("MD5").digest(urlString.getBytes("UTF-8"));
+            final StringBuilder key = new StringBuilder(bytes.length * 2);
+            for (final byte b : bytes)
+                key.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return key.toString();
+        } catch (final NoSuchAlgorithmException e) {
+        } catch (final IOException e) {}
+        return Integer.toHexString(urlString.hashCode());
+    }
+}
@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -29,6 +30,8 @@ import java.security.DigestInputStream;
 import java.security.MessageDigest;
 
 public class Utilities {
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT    = 30000;
 
     /**
      * Downloads a file
@@ -61,24 +64,65 @@ public class Utilities {
     }
 
     /**
-     * Gets the contents of a URL
+     * Gets the contents of a URL.
+     * The response is always read to the end and closed, so the connection goes back to the keep-alive
+     * pool shared by all the requests to the same host. Safe to call from several threads at once.
      * @param urlString URL to get the contents of
-     * @return Contents of the URL
+     * @return Contents of the URL, null if it couldn't be read
      */
     public static String getContent(final String urlString) {
         try {
             final URL url = new URL(urlString);
             final URLConnection urlConnection = url.openConnection();
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(urlConnection.getInputStream()));
-            String inputLine = "", content = "";
-            while ((inputLine = reader.readLine()) != null)
-                content += inputLine;
-            reader.close();
-            return content;
+            urlConnection.setConnectTimeout(CONNECT_TIMEOUT);
+            urlConnection.setReadTimeout(READ_TIMEOUT);
+            return readContent(urlConnection.getInputStream());
         } catch (final Exception e) {}
         return null;
     }
 
+    /**
+     * Reads a UTF-8 stream to the end, joining it's lines, and closes it
+     * @param stream Stream to read
+     * @return Contents of the stream
+     * @throws IOException If the stream couldn't be read
+     */
+    public static String readContent(final InputStream stream) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "UTF-8"));
+        try {
+            final StringBuilder content = new StringBuilder();
+            String inputLine;
+            while ((inputLine = reader.readLine()) != null)
+                content.append(inputLine);
+            return content.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Writes a file atomically: the contents are written to a temporary file first, which then replaces
+     * the file, so a crash never leaves it half written
+     * @param file File to write
+     * @param content Contents of the file
+     * @throws IOException If the file couldn't be written
+     */
+    public static void writeAtomically(final File file, final String content) throws IOException {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null)
+            parent.mkdirs();
+        final File temporary = new File(file.getPath() + ".tmp");
+        final FileOutputStream output = new FileOutputStream(temporary);
+        try {
+            output.write(content.getBytes("UTF-8"));
+            output.getFD().sync();
+        } finally {
+            output.close();
+        }
+        if (!temporary.renameTo(file) && !(file.delete() && temporary.renameTo(file))) // Windows doesn't rename over existing files
+            throw new IOException("Couldn't replace " + file.getPath() + ".");
+    }
+
     /**
      * Gets the MD5 of a file
      * @param file File to get the MD5 of